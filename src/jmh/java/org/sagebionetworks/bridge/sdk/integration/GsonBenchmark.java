@@ -0,0 +1,106 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.rest.model.ReportDataList;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityList;
+import org.sagebionetworks.bridge.rest.model.Survey;
+
+/**
+ * Serialize and deserialize throughput of {@link RestUtils#GSON} for the models the suite moves most. Size is the
+ * number of list items, for the survey roughly the number of questions (the survey has polymorphic elements and
+ * constraints, so it also measures Gson's type adapters for subtypes), and for the consent signature the image size
+ * in KB. Run with the GC profiler to get the
+ * allocation rate; see {@link GsonBenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonBenchmark {
+
+    @Param({ "10", "100", "500" })
+    public int size;
+
+    private Survey survey;
+    private String surveyJson;
+    private ScheduledActivityList activities;
+    private String activitiesJson;
+    private ReportDataList reports;
+    private String reportsJson;
+    private ConsentSignature signature;
+    private String signatureJson;
+
+    @Setup
+    public void setup() {
+        // 9 questions per block, one of each constraint type.
+        int questionsPerType = Math.max(1, size / 9);
+        survey = TestSurvey.getLargeSurvey(GsonBenchmark.class, questionsPerType, 10, questionsPerType);
+        surveyJson = RestUtils.GSON.toJson(survey);
+
+        activitiesJson = ModelFixtures.scheduledActivityListJson(size);
+        activities = RestUtils.GSON.fromJson(activitiesJson, ScheduledActivityList.class);
+
+        reportsJson = ModelFixtures.reportDataListJson(size);
+        reports = RestUtils.GSON.fromJson(reportsJson, ReportDataList.class);
+
+        signatureJson = ModelFixtures.consentSignatureJson(size);
+        signature = RestUtils.GSON.fromJson(signatureJson, ConsentSignature.class);
+    }
+
+    @Benchmark
+    public String serializeSurvey() {
+        return RestUtils.GSON.toJson(survey);
+    }
+
+    @Benchmark
+    public Survey deserializeSurvey() {
+        return RestUtils.GSON.fromJson(surveyJson, Survey.class);
+    }
+
+    @Benchmark
+    public String serializeScheduledActivityList() {
+        return RestUtils.GSON.toJson(activities);
+    }
+
+    @Benchmark
+    public ScheduledActivityList deserializeScheduledActivityList() {
+        return RestUtils.GSON.fromJson(activitiesJson, ScheduledActivityList.class);
+    }
+
+    @Benchmark
+    public String serializeReportDataList() {
+        return RestUtils.GSON.toJson(reports);
+    }
+
+    @Benchmark
+    public ReportDataList deserializeReportDataList() {
+        return RestUtils.GSON.fromJson(reportsJson, ReportDataList.class);
+    }
+
+    @Benchmark
+    public String serializeConsentSignature() {
+        return RestUtils.GSON.toJson(signature);
+    }
+
+    @Benchmark
+    public ConsentSignature deserializeConsentSignature() {
+        return RestUtils.GSON.fromJson(signatureJson, ConsentSignature.class);
+    }
+}
@@ -0,0 +1,94 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link GsonBenchmark} with the GC profiler and writes the JMH JSON result to target/jmh/gson.json. If
+ * -Djmh.baseline points at the result file of an earlier run (e.g. a copy saved before upgrading rest-client or
+ * Gson), each benchmark's throughput and allocation per operation are printed next to the baseline's.
+ */
+public class GsonBenchmarkRunner {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception {
+        File result = new File("target/jmh/gson.json");
+        if (!result.getParentFile().isDirectory() && !result.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create " + result.getParentFile());
+        }
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", GsonBenchmark.class.getSimpleName()))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.getPath())
+                .build();
+        new Runner(options).run();
+
+        String baseline = System.getProperty("jmh.baseline");
+        if (baseline != null && !baseline.isEmpty()) {
+            printComparison(readScores(new File(baseline)), readScores(result));
+        }
+    }
+
+    private static void printComparison(Map<String, double[]> baseline, Map<String, double[]> current) {
+        System.out.println();
+        System.out.println(String.format("%-70s %14s %14s %8s %12s %12s", "Benchmark", "Baseline ops/s",
+                "Current ops/s", "Change", "Base B/op", "Curr B/op"));
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] now = entry.getValue();
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println(String.format("%-70s %14s %14.1f %8s %12s %12.0f", entry.getKey(), "-", now[0],
+                        "-", "-", now[1]));
+                continue;
+            }
+            double change = (now[0] - before[0]) / before[0] * 100;
+            System.out.println(String.format("%-70s %14.1f %14.1f %+7.1f%% %12.0f %12.0f", entry.getKey(),
+                    before[0], now[0], change, before[1], now[1]));
+        }
+    }
+
+    // Reads a JMH JSON result into "benchmark [params]" -> { score, bytes allocated per op }.
+    private static Map<String, double[]> readScores(File file) throws IOException {
+        Map<String, double[]> scores = new TreeMap<>();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            JsonArray runs = new JsonParser().parse(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                String benchmark = run.get("benchmark").getAsString();
+                String name = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+                if (run.has("params")) {
+                    name += " " + run.getAsJsonObject("params").toString();
+                }
+                double score = run.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+                double allocated = Double.NaN;
+                if (run.has("secondaryMetrics")) {
+                    for (Map.Entry<String, JsonElement> metric : run.getAsJsonObject("secondaryMetrics").entrySet()) {
+                        if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                            allocated = metric.getValue().getAsJsonObject().get("score").getAsDouble();
+                        }
+                    }
+                }
+                scores.put(name, new double[] { score, allocated });
+            }
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,255 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.Withdrawal;
+
+/**
+ * Withdraws many participants from the study, for when a study closes. Withdrawals run with bounded concurrency,
+ * and every participant that is done (withdrawn, or not found) is appended to a checkpoint file as soon as the server
+ * confirms it. A run that is interrupted, or stopped with {@link #requestStop}, can be started again with the same
+ * checkpoint file and only the participants not yet done are withdrawn. Server errors (5xx) and network errors
+ * (an IOException, such as a timeout, with no response from the server) are retried with exponential backoff, and are
+ * counted separately so the server error rate only reflects responses the server sent. Other errors are not retried,
+ * and the participant is left out of the checkpoint so a later run retries it.
+ */
+public class BulkWithdrawal {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkWithdrawal.class);
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MILLIS = 250;
+
+    private final ParticipantsApi participantsApi;
+    private final int concurrency;
+    private final File checkpointFile;
+    private volatile boolean stopRequested;
+
+    /**
+     * @param participantsApi
+     *         a researcher's participants API
+     * @param concurrency
+     *         withdrawals in flight at once
+     * @param checkpointFile
+     *         file listing the participant IDs already done; created if it doesn't exist
+     */
+    public BulkWithdrawal(ParticipantsApi participantsApi, int concurrency, File checkpointFile) {
+        checkNotNull(participantsApi);
+        checkArgument(concurrency > 0);
+        checkNotNull(checkpointFile);
+        this.participantsApi = participantsApi;
+        this.concurrency = concurrency;
+        this.checkpointFile = checkpointFile;
+    }
+
+    /** Statistics for one run. */
+    public static class Result {
+        private final long skipped;
+        private final long withdrawn;
+        private final long notFound;
+        private final long failed;
+        private final long requests;
+        private final long serverErrors;
+        private final long networkErrors;
+        private final long elapsedMillis;
+        private final LatencyRecorder latency;
+
+        Result(long skipped, long withdrawn, long notFound, long failed, long requests, long serverErrors,
+                long networkErrors, long elapsedMillis, LatencyRecorder latency) {
+            this.skipped = skipped;
+            this.withdrawn = withdrawn;
+            this.notFound = notFound;
+            this.failed = failed;
+            this.requests = requests;
+            this.serverErrors = serverErrors;
+            this.networkErrors = networkErrors;
+            this.elapsedMillis = elapsedMillis;
+            this.latency = latency;
+        }
+
+        /** Participants already in the checkpoint when the run started. */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getWithdrawn() {
+            return withdrawn;
+        }
+
+        /** Participants the server no longer has; they are checkpointed as done. */
+        public long getNotFound() {
+            return notFound;
+        }
+
+        /** Participants that still failed after retries, or failed with a client error. */
+        public long getFailed() {
+            return failed;
+        }
+
+        /** Withdrawal requests sent, including retries. */
+        public long getRequests() {
+            return requests;
+        }
+
+        /** Requests the server answered with a 5xx. */
+        public long getServerErrors() {
+            return serverErrors;
+        }
+
+        /** Requests that got no response: connection failures and timeouts. */
+        public long getNetworkErrors() {
+            return networkErrors;
+        }
+
+        /** Server errors as a fraction of requests sent. */
+        public double getServerErrorRate() {
+            return (requests == 0) ? 0.0 : serverErrors / (double)requests;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getWithdrawalsPerSecond() {
+            return LoadTestHelper.ratePerSecond(withdrawn, elapsedMillis);
+        }
+
+        public LatencyRecorder getLatency() {
+            return latency;
+        }
+
+        public String summary() {
+            return String.format("bulk withdrawal: skipped=%d, withdrawn=%d, notFound=%d, failed=%d, requests=%d, "
+                    + "serverErrors=%d (%.2f%%), networkErrors=%d, elapsed=%dms, withdrawals/s=%.1f; %s", skipped,
+                    withdrawn, notFound, failed, requests, serverErrors, getServerErrorRate() * 100, networkErrors,
+                    elapsedMillis, getWithdrawalsPerSecond(), latency.summary());
+        }
+    }
+
+    /**
+     * Makes a running {@link #run} finish early: withdrawals already in flight complete and are checkpointed, the
+     * rest are left for the next run.
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    /** The participant IDs recorded as done in the checkpoint file. */
+    public Set<String> readCheckpoint() throws IOException {
+        Set<String> done = new HashSet<>();
+        if (checkpointFile.exists()) {
+            for (String line : Files.readAllLines(checkpointFile.toPath(), StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    done.add(line.trim());
+                }
+            }
+        }
+        return done;
+    }
+
+    /** Withdraws every participant not already in the checkpoint. */
+    public Result run(List<String> userIds, Withdrawal withdrawal) throws Exception {
+        checkNotNull(userIds);
+        checkNotNull(withdrawal);
+        stopRequested = false;
+
+        Set<String> done = readCheckpoint();
+        List<String> pending = new ArrayList<>();
+        for (String userId : userIds) {
+            if (!done.contains(userId)) {
+                pending.add(userId);
+            }
+        }
+
+        LatencyRecorder latency = new LatencyRecorder("withdrawParticipantFromStudy");
+        AtomicLong withdrawn = new AtomicLong();
+        AtomicLong notFound = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong requests = new AtomicLong();
+        AtomicLong serverErrors = new AtomicLong();
+        AtomicLong networkErrors = new AtomicLong();
+        long start = System.currentTimeMillis();
+        try (Writer checkpoint = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(checkpointFile,
+                true), StandardCharsets.UTF_8))) {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (String userId : pending) {
+                tasks.add(() -> {
+                    if (stopRequested || Thread.currentThread().isInterrupted()) {
+                        return null;
+                    }
+                    Outcome outcome = withdraw(userId, withdrawal, latency, requests, serverErrors,
+                            networkErrors);
+                    if (outcome == Outcome.FAILED) {
+                        failed.incrementAndGet();
+                        return null;
+                    }
+                    (outcome == Outcome.WITHDRAWN ? withdrawn : notFound).incrementAndGet();
+                    synchronized (checkpoint) {
+                        checkpoint.write(userId + "\n");
+                        checkpoint.flush();
+                    }
+                    return null;
+                });
+            }
+            LoadTestHelper.runConcurrently(concurrency, tasks);
+        }
+        return new Result(userIds.size() - pending.size(), withdrawn.get(), notFound.get(), failed.get(),
+                requests.get(), serverErrors.get(), networkErrors.get(), System.currentTimeMillis() - start, latency);
+    }
+
+    private enum Outcome {
+        WITHDRAWN, NOT_FOUND, FAILED
+    }
+
+    private Outcome withdraw(String userId, Withdrawal withdrawal, LatencyRecorder latency, AtomicLong requests,
+            AtomicLong serverErrors, AtomicLong networkErrors) throws InterruptedException {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            requests.incrementAndGet();
+            try {
+                latency.time(() -> participantsApi.withdrawParticipantFromStudy(userId, withdrawal).execute());
+                return Outcome.WITHDRAWN;
+            } catch (EntityNotFoundException ex) {
+                return Outcome.NOT_FOUND;
+            } catch (Exception ex) {
+                boolean serverError = ex instanceof BridgeSDKException
+                        && ((BridgeSDKException)ex).getStatusCode() >= 500;
+                boolean networkError = ex instanceof IOException;
+                if (serverError) {
+                    serverErrors.incrementAndGet();
+                } else if (networkError) {
+                    networkErrors.incrementAndGet();
+                }
+                if (!(serverError || networkError) || attempt >= MAX_ATTEMPTS) {
+                    LOG.error("Error withdrawing user=" + userId + ": " + ex.getMessage(), ex);
+                    return Outcome.FAILED;
+                }
+                LOG.warn("Error withdrawing user=" + userId + " (attempt " + attempt + "), retrying: "
+                        + ex.getMessage());
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.exceptions.ConsentRequiredException;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Withdrawal;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Withdraws a population of consented participants with {@link BulkWithdrawal}, the way a study close-out would. The
+ * first run is stopped halfway through to stand in for an interrupted job; a second run with the same checkpoint file
+ * must pick up only the participants the first didn't finish. A sample of the withdrawn participants then sign in,
+ * and each must get a 412 ConsentRequiredException. The scenario reports withdrawals/s and the server error rate for
+ * both runs; results are appended to target/load-results/bulk-withdrawal.csv.
+ */
+@Category(LoadTest.class)
+public class BulkWithdrawalTest {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkWithdrawalTest.class);
+
+    private static final int USER_COUNT = LoadTestHelper.getIntProperty("load.users", 50);
+    private static final int CONCURRENCY = LoadTestHelper.getIntProperty("load.concurrency", 8);
+    private static final int VERIFY_SAMPLES = LoadTestHelper.getIntProperty("load.verifySamples", 10);
+
+    private static final String RESULTS_HEADER = "run,users,skipped,withdrawn,notFound,failed,requests,serverErrors,"
+            + "serverErrorRate,networkErrors,elapsedMs,withdrawalsPerSecond,p50,p99";
+
+    private static TestUser researcher;
+    private static List<TestUser> users;
+
+    private File checkpointFile;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        researcher = TestUserHelper.createAndSignInUser(BulkWithdrawalTest.class, false, Role.RESEARCHER);
+        users = LoadTestHelper.createUsers(BulkWithdrawalTest.class, USER_COUNT, true);
+    }
+
+    @Before
+    public void before() throws Exception {
+        checkpointFile = File.createTempFile("bulk-withdrawal-", ".checkpoint");
+    }
+
+    @After
+    public void after() {
+        if (checkpointFile != null && !checkpointFile.delete()) {
+            LOG.warn("Could not delete checkpoint file " + checkpointFile);
+        }
+    }
+
+    @AfterClass
+    public static void deleteResearcher() throws Exception {
+        if (researcher != null) {
+            researcher.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        LoadTestHelper.deleteUsers(users);
+    }
+
+    @Test
+    public void withdrawAndResume() throws Exception {
+        List<String> userIds = new ArrayList<>();
+        for (TestUser user : users) {
+            userIds.add(user.getSession().getId());
+        }
+        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        Withdrawal withdrawal = new Withdrawal().reason("Study closed by BulkWithdrawalTest");
+
+        // First run: stopped once half the participants have been sent, however fast the server is. Only the
+        // withdrawals already in flight (at most the concurrency) finish after that.
+        int stopAfter = userIds.size() / 2;
+        AtomicInteger sent = new AtomicInteger();
+        AtomicReference<BulkWithdrawal> interrupted = new AtomicReference<>();
+        ParticipantsApi stopsHalfway = (ParticipantsApi)Proxy.newProxyInstance(
+                ParticipantsApi.class.getClassLoader(), new Class<?>[] { ParticipantsApi.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("withdrawParticipantFromStudy")
+                            && sent.incrementAndGet() >= stopAfter) {
+                        interrupted.get().requestStop();
+                    }
+                    try {
+                        return method.invoke(participantsApi, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+        interrupted.set(new BulkWithdrawal(stopsHalfway, CONCURRENCY, checkpointFile));
+        BulkWithdrawal.Result first = interrupted.get().run(userIds, withdrawal);
+        LOG.info("First run: " + first.summary());
+        long firstDone = first.getWithdrawn() + first.getNotFound();
+        assertTrue("First run should have stopped early, but finished " + firstDone + " of " + userIds.size(),
+                firstDone < userIds.size());
+        assertEquals(firstDone, interrupted.get().readCheckpoint().size());
+
+        // Second run resumes from the checkpoint.
+        BulkWithdrawal resumed = new BulkWithdrawal(participantsApi, CONCURRENCY, checkpointFile);
+        BulkWithdrawal.Result second = resumed.run(userIds, withdrawal);
+        LOG.info("Resumed run: " + second.summary());
+        assertEquals(firstDone, second.getSkipped());
+        assertEquals(0, second.getFailed());
+        assertEquals(userIds.size(), second.getSkipped() + second.getWithdrawn() + second.getNotFound());
+        assertEquals(userIds.size(), resumed.readCheckpoint().size());
+
+        // Withdrawn participants are no longer consented.
+        List<TestUser> sample = new ArrayList<>(users);
+        Collections.shuffle(sample);
+        for (TestUser user : sample.subList(0, Math.min(VERIFY_SAMPLES, sample.size()))) {
+            try {
+                user.signInAgain();
+                fail("Withdrawn participant " + user.getEmail() + " should have to consent again");
+            } catch (ConsentRequiredException ex) {
+                assertTrue(ex.getSession() != null);
+            }
+        }
+
+        List<String> rows = new ArrayList<>();
+        rows.add(resultRow("interrupted", userIds.size(), first));
+        rows.add(resultRow("resumed", userIds.size(), second));
+        LoadTestHelper.appendResults("bulk-withdrawal", RESULTS_HEADER, rows);
+    }
+
+    private static String resultRow(String run, int userCount, BulkWithdrawal.Result result) {
+        return run + "," + userCount + "," + result.getSkipped() + "," + result.getWithdrawn() + ","
+                + result.getNotFound() + "," + result.getFailed() + "," + result.getRequests() + ","
+                + result.getServerErrors() + "," + String.format("%.4f", result.getServerErrorRate()) + ","
+                + result.getNetworkErrors() + "," + result.getElapsedMillis() + ","
+                + String.format("%.1f", result.getWithdrawalsPerSecond()) + "," + result.getLatency().getPercentile(0.5)
+                + "," + result.getLatency().getPercentile(0.99);
+    }
+}
@@ -0,0 +1,85 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Joiner;
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import org.sagebionetworks.bridge.rest.ErrorResponseInterceptor;
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.ClientInfo;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * The API clients behind TestUser.getClient(): Retrofit clients of the SDK's API interfaces for one user, over the
+ * shared {@link HttpTransport} and one {@link SingleFlightSession}, that differ only in User-Agent (built from a
+ * ClientInfo the way the SDK builds it) and Accept-Language. However many users a scenario runs, they share one
+ * connection pool, and switching a user between app versions or languages (TestUser.setClientInfo() just changes
+ * which variant getClient() hands out) costs neither a reconnect nor a sign-in.
+ *
+ * <p>The clients have the SDK's error handling (its ErrorResponseInterceptor), so a failed call throws the same
+ * BridgeSDKException subclass a ClientManager client would, and they use {@link HarnessCodecs#GSON}, which reads and
+ * writes the same JSON as RestUtils.GSON. A call that gets a 401 signs the user in again once, as a ClientManager
+ * client does. Anything the server decides at sign-in (consent statuses, for instance) reflects the ClientInfo the
+ * user last signed in with.</p>
+ */
+public class ClientVariants {
+    private final TestUser user;
+    private final SingleFlightSession session;
+    private final OkHttpClient sessionClient;
+    private final OkHttpClient signInClient;
+    private final Map<String, Retrofit> variants = new ConcurrentHashMap<>();
+
+    /** The user needn't be signed in yet; the variants always use the user's current session. */
+    public ClientVariants(TestUser user) {
+        checkNotNull(user);
+        this.user = user;
+        HttpTransport transport = HttpTransport.get();
+        this.session = new SingleFlightSession(user, transport.getClient());
+        // Error mapping goes outside the session interceptor, which has to see a 401 before it becomes an exception.
+        this.sessionClient = transport.newClient(new ErrorResponseInterceptor(), session.interceptor());
+        this.signInClient = transport.newClient(new ErrorResponseInterceptor());
+    }
+
+    /** A client of the API that identifies itself with the given ClientInfo and languages. */
+    public <T> T getClient(Class<T> service, ClientInfo clientInfo, List<String> languages) {
+        return variant(sessionClient, "session", clientInfo, languages).create(service);
+    }
+
+    /**
+     * Like getClient(), but without the session: for signing in, where a 401 must not trigger another sign-in.
+     */
+    public <T> T getSignInClient(Class<T> service, ClientInfo clientInfo, List<String> languages) {
+        return variant(signInClient, "sign-in", clientInfo, languages).create(service);
+    }
+
+    /** The session shared by every variant, with its re-authentication counts. */
+    public SingleFlightSession getSession() {
+        return session;
+    }
+
+    /** Variants created so far. */
+    public int getVariantCount() {
+        return variants.size();
+    }
+
+    private Retrofit variant(OkHttpClient client, String kind, ClientInfo clientInfo, List<String> languages) {
+        checkNotNull(clientInfo);
+        checkNotNull(languages);
+        String userAgent = RestUtils.getUserAgent(clientInfo);
+        String acceptLanguage = Joiner.on(",").join(languages);
+        return variants.computeIfAbsent(kind + "|" + userAgent + "|" + acceptLanguage, key -> new Retrofit.Builder()
+                .baseUrl(user.getClientManager().getHostUrl() + "/")
+                .client(client.newBuilder().addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+                        .header("User-Agent", userAgent).header("Accept-Language", acceptLanguage).build()))
+                        .build())
+                .addConverterFactory(GsonConverterFactory.create(HarnessCodecs.GSON))
+                .build());
+    }
+}
@@ -0,0 +1,112 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.ClientInfo;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Switches one user between app versions and languages, as a multi-client-version scenario does, three ways: with
+ * {@link ClientVariants} directly, with TestUser.setClientInfo() (the same session and connections), and with
+ * setClientInfo() followed by a sign-in, as ScheduleTest does when the server has to re-evaluate the User-Agent at
+ * sign-in. The first two must never sign in while switching, and the variants must sign in once when the session is
+ * signed out. Switch latency for each way is appended to target/load-results/client-variants.csv.
+ */
+@Category(LoadTest.class)
+public class ClientVariantsTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ClientVariantsTest.class);
+
+    private static final int SAMPLES = LoadTestHelper.getIntProperty("load.samples", 10);
+
+    private static TestUser user;
+    private static TestUser baselineUser;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        user = TestUserHelper.createAndSignInUser(ClientVariantsTest.class, true);
+        baselineUser = TestUserHelper.createAndSignInUser(ClientVariantsTest.class, true);
+    }
+
+    @AfterClass
+    public static void deleteUser() throws Exception {
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteBaselineUser() throws Exception {
+        if (baselineUser != null) {
+            baselineUser.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void switchClientInfoWithoutSigningIn() throws Exception {
+        List<ClientInfo> clientInfos = Lists.newArrayList(Tests.getClientInfoWithVersion("Android", 2),
+                Tests.getClientInfoWithVersion("Android", 12), Tests.getClientInfoWithVersion("iPhone OS", 12));
+        List<List<String>> languages = Lists.newArrayList(Lists.newArrayList("en"), Lists.newArrayList("fr", "de"));
+
+        ClientVariants variants = new ClientVariants(user);
+        String token = variants.getSession().getSessionToken();
+        LatencyRecorder variantSwitch = new LatencyRecorder("switch with ClientVariants");
+        LatencyRecorder clientInfoSwitch = new LatencyRecorder("switch with setClientInfo");
+        LatencyRecorder signInSwitch = new LatencyRecorder("switch with setClientInfo and sign in");
+        for (int i = 0; i < SAMPLES; i++) {
+            ClientInfo clientInfo = clientInfos.get(i % clientInfos.size());
+            List<String> language = languages.get(i % languages.size());
+
+            StudyParticipant participant = variantSwitch.time(() -> variants.getClient(ParticipantsApi.class,
+                    clientInfo, language).getUsersParticipantRecord().execute().body());
+            assertEquals(user.getEmail(), participant.getEmail());
+
+            participant = clientInfoSwitch.time(() -> {
+                user.setClientInfo(clientInfo);
+                return user.getClient(ParticipantsApi.class).getUsersParticipantRecord().execute().body();
+            });
+            assertEquals(user.getEmail(), participant.getEmail());
+
+            signInSwitch.time(() -> {
+                baselineUser.setClientInfo(clientInfo);
+                baselineUser.signInAgain();
+                return baselineUser.getClient(ParticipantsApi.class).getUsersParticipantRecord().execute().body();
+            });
+        }
+        assertEquals("Switching variants should not sign in", 0, variants.getSession().getReauthCount());
+        assertEquals("setClientInfo() should keep the session", token, user.getSession().getSessionToken());
+        assertEquals(token, variants.getSession().getSessionToken());
+        variantSwitch.log();
+        clientInfoSwitch.log();
+        signInSwitch.log();
+        LOG.info(variants.getVariantCount() + " variants shared one session");
+
+        // One session for all the variants: signed out, it signs in once, and every variant carries on.
+        user.signOut();
+        for (ClientInfo clientInfo : clientInfos) {
+            StudyParticipant participant = variants.getClient(ParticipantsApi.class, clientInfo, languages.get(0))
+                    .getUsersParticipantRecord().execute().body();
+            assertEquals(user.getEmail(), participant.getEmail());
+        }
+        assertEquals(1, variants.getSession().getReauthCount());
+
+        List<String> rows = new ArrayList<>();
+        rows.add("ClientVariants," + variantSwitch.getPercentile(0.5) + "," + variantSwitch.getPercentile(0.99));
+        rows.add("setClientInfo," + clientInfoSwitch.getPercentile(0.5) + "," + clientInfoSwitch.getPercentile(0.99));
+        rows.add("setClientInfo and sign in," + signInSwitch.getPercentile(0.5) + ","
+                + signInSwitch.getPercentile(0.99));
+        LoadTestHelper.appendResults("client-variants", "path,switchP50,switchP99", rows);
+    }
+}
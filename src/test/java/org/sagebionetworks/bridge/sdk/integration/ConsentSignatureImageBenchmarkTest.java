@@ -0,0 +1,181 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import okhttp3.OkHttpClient;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.rest.model.SharingScope;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Gives consent with signature images of increasing size, through the SDK (the image is read into memory and
+ * base64-encoded into imageData) and through {@link ConsentSignatureStreamer} (the image is encoded from disk into the
+ * request body). For each size and path, records the request size, createConsentSignature and getConsentSignature
+ * latency, and the bytes the calling thread allocated for each call (-1 where the JVM can't report it). Each sample
+ * uses a new unconsented user, since a user can only sign once. Results are appended to
+ * target/load-results/consent-signature-image.csv.
+ */
+@Category(LoadTest.class)
+public class ConsentSignatureImageBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ConsentSignatureImageBenchmarkTest.class);
+
+    private static final List<Integer> IMAGE_SIZES_KB = LoadTestHelper.getIntListProperty("load.imageSizesKb",
+            "10,100,500");
+    private static final int SAMPLES = LoadTestHelper.getIntProperty("load.samples", 3);
+    private static final String IMAGE_MIME_TYPE = "image/png";
+
+    private static final String RESULTS_HEADER = "imageKb,path,requestBytes,createP50,createP99,getP50,getP99,"
+            + "createAllocatedBytes,getAllocatedBytes";
+
+    private static final OkHttpClient HTTP_CLIENT = HttpTransport.get().getClient();
+
+    @Test
+    public void signatureImageSizes() throws Exception {
+        List<String> rows = new ArrayList<>();
+        Random random = new Random(IMAGE_SIZES_KB.hashCode());
+        for (int imageKb : IMAGE_SIZES_KB) {
+            byte[] image = new byte[imageKb * 1024];
+            random.nextBytes(image);
+            Path imageFile = Files.createTempFile("signature-" + imageKb + "kb-", ".png");
+            try {
+                Files.write(imageFile, image);
+                byte[] sha256 = ConsentSignatureStreamer.sha256(imageFile);
+                rows.add(measure(imageKb, "sdk", user -> sdkRoundTrip(user, imageFile, image)));
+                rows.add(measure(imageKb, "streaming", user -> streamingRoundTrip(user, imageFile, image.length,
+                        sha256)));
+            } finally {
+                Files.deleteIfExists(imageFile);
+            }
+        }
+        LoadTestHelper.appendResults("consent-signature-image", RESULTS_HEADER, rows);
+    }
+
+    // Measurements from one signature round trip.
+    private static final class Sample {
+        private long requestBytes;
+        private long createMillis;
+        private long createAllocated;
+        private long getMillis;
+        private long getAllocated;
+    }
+
+    private interface RoundTrip {
+        Sample run(TestUser user) throws Exception;
+    }
+
+    private static String measure(int imageKb, String path, RoundTrip roundTrip) throws Exception {
+        LatencyRecorder create = new LatencyRecorder("createConsentSignature, " + path + ", " + imageKb + " KB");
+        LatencyRecorder get = new LatencyRecorder("getConsentSignature, " + path + ", " + imageKb + " KB");
+        long requestBytes = 0L;
+        long createAllocated = 0L;
+        long getAllocated = 0L;
+        for (int i = 0; i < SAMPLES; i++) {
+            TestUser user = TestUserHelper.createAndSignInUser(ConsentSignatureImageBenchmarkTest.class, false);
+            try {
+                Sample sample = roundTrip.run(user);
+                create.record(sample.createMillis);
+                get.record(sample.getMillis);
+                requestBytes = sample.requestBytes;
+                createAllocated += sample.createAllocated;
+                getAllocated += sample.getAllocated;
+            } finally {
+                user.signOutAndDeleteUser();
+            }
+        }
+        createAllocated /= SAMPLES;
+        getAllocated /= SAMPLES;
+        create.log();
+        get.log();
+        LOG.info(String.format("%s, %d KB image: request=%d bytes, allocated per call: create=%d, get=%d bytes",
+                path, imageKb, requestBytes, createAllocated, getAllocated));
+        return imageKb + "," + path + "," + requestBytes + "," + create.getPercentile(0.5) + ","
+                + create.getPercentile(0.99) + "," + get.getPercentile(0.5) + "," + get.getPercentile(0.99) + ","
+                + createAllocated + "," + getAllocated;
+    }
+
+    // As an app would today: the whole image is read, encoded to a string, and serialized into the request.
+    private static Sample sdkRoundTrip(TestUser user, Path imageFile, byte[] image) throws Exception {
+        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        Sample sample = new Sample();
+
+        long allocated = allocatedBytes();
+        long start = System.currentTimeMillis();
+        ConsentSignature signature = signature().imageMimeType(IMAGE_MIME_TYPE)
+                .imageData(Base64.getEncoder().encodeToString(Files.readAllBytes(imageFile)));
+        usersApi.createConsentSignature(user.getDefaultSubpopulation(), signature).execute();
+        sample.createMillis = System.currentTimeMillis() - start;
+        sample.createAllocated = allocatedSince(allocated);
+        sample.requestBytes = RestUtils.GSON.toJson(signature).getBytes(StandardCharsets.UTF_8).length;
+
+        allocated = allocatedBytes();
+        start = System.currentTimeMillis();
+        ConsentSignature fromServer = usersApi.getConsentSignature(user.getDefaultSubpopulation()).execute().body();
+        sample.getMillis = System.currentTimeMillis() - start;
+        sample.getAllocated = allocatedSince(allocated);
+
+        assertArrayEquals(image, Base64.getDecoder().decode(fromServer.getImageData()));
+        return sample;
+    }
+
+    private static Sample streamingRoundTrip(TestUser user, Path imageFile, long imageBytes, byte[] sha256)
+            throws Exception {
+        ConsentSignatureStreamer streamer = new ConsentSignatureStreamer(user, HTTP_CLIENT);
+        Sample sample = new Sample();
+
+        long allocated = allocatedBytes();
+        long start = System.currentTimeMillis();
+        sample.requestBytes = streamer.createConsentSignature(user.getDefaultSubpopulation(), signature(),
+                imageFile, IMAGE_MIME_TYPE);
+        sample.createMillis = System.currentTimeMillis() - start;
+        sample.createAllocated = allocatedSince(allocated);
+
+        allocated = allocatedBytes();
+        start = System.currentTimeMillis();
+        ConsentSignatureStreamer.SignatureImage fromServer = streamer.getConsentSignature(
+                user.getDefaultSubpopulation());
+        sample.getMillis = System.currentTimeMillis() - start;
+        sample.getAllocated = allocatedSince(allocated);
+
+        assertEquals(IMAGE_MIME_TYPE, fromServer.getImageMimeType());
+        assertEquals(imageBytes, fromServer.getImageBytes());
+        assertArrayEquals(sha256, fromServer.getSha256());
+        return sample;
+    }
+
+    private static ConsentSignature signature() {
+        return new ConsentSignature().name("Image Benchmark").birthdate(new LocalDate(1970, 1, 1))
+                .scope(SharingScope.ALL_QUALIFIED_RESEARCHERS);
+    }
+
+    // Bytes allocated so far by the calling thread, or -1 if the JVM doesn't track it.
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1L;
+    }
+
+    private static long allocatedSince(long before) {
+        return (before < 0) ? -1L : allocatedBytes() - before;
+    }
+}
@@ -0,0 +1,241 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import com.google.common.io.CountingInputStream;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Gives and reads consent signatures with large signature images without holding the image in memory as a string.
+ * createConsentSignature() base64-encodes the image file straight into the request body, between the JSON of the
+ * other signature fields (serialized with {@link RestUtils#GSON}, so they match what the SDK sends) and the closing
+ * brace; the request has a fixed Content-Length. getConsentSignature() parses the response as a stream and decodes
+ * the image into a digest; the base64 string is materialized once, by the JSON reader.
+ *
+ * <p>Calls go straight to the consent endpoints with the user's current session token, as UserProfileTest does for
+ * raw requests, so the user must be signed in.</p>
+ */
+public class ConsentSignatureStreamer {
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final TestUser user;
+    private final OkHttpClient client;
+
+    public ConsentSignatureStreamer(TestUser user, OkHttpClient client) {
+        checkNotNull(user);
+        checkNotNull(client);
+        this.user = user;
+        this.client = client;
+    }
+
+    /** The decoded signature image returned by {@link #getConsentSignature}. */
+    public static class SignatureImage {
+        private final String imageMimeType;
+        private final long imageBytes;
+        private final byte[] sha256;
+        private final long responseBytes;
+
+        SignatureImage(String imageMimeType, long imageBytes, byte[] sha256, long responseBytes) {
+            this.imageMimeType = imageMimeType;
+            this.imageBytes = imageBytes;
+            this.sha256 = sha256;
+            this.responseBytes = responseBytes;
+        }
+
+        public String getImageMimeType() {
+            return imageMimeType;
+        }
+
+        /** Size of the decoded image. */
+        public long getImageBytes() {
+            return imageBytes;
+        }
+
+        public byte[] getSha256() {
+            return sha256;
+        }
+
+        /** Size of the response body as received. */
+        public long getResponseBytes() {
+            return responseBytes;
+        }
+    }
+
+    /**
+     * Gives consent to the subpopulation with the given signature, using the image file (raw bytes, not base64) as the
+     * signature image. Any imageData already set on the signature is ignored. Returns the request body size.
+     */
+    public long createConsentSignature(String subpopulationGuid, ConsentSignature signature, Path imageFile,
+            String imageMimeType) throws IOException {
+        checkNotNull(subpopulationGuid);
+        checkNotNull(signature);
+        checkArgument(Files.isRegularFile(imageFile), "Not a file: %s", imageFile);
+        checkNotNull(imageMimeType);
+
+        JsonObject fields = RestUtils.GSON.toJsonTree(signature).getAsJsonObject();
+        fields.remove("imageData");
+        fields.addProperty("imageMimeType", imageMimeType);
+        String fieldsJson = RestUtils.GSON.toJson(fields);
+        // Everything but the closing brace, then the image as the last member.
+        byte[] head = (fieldsJson.substring(0, fieldsJson.lastIndexOf('}')) + (fields.size() > 0 ? "," : "")
+                + "\"imageData\":\"").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = "\"}".getBytes(StandardCharsets.UTF_8);
+        long contentLength = head.length + base64Length(Files.size(imageFile)) + tail.length;
+
+        RequestBody body = new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return JSON;
+            }
+
+            @Override
+            public long contentLength() {
+                return contentLength;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.write(head);
+                // The encoder's close() flushes the final quantum; the sink itself must stay open.
+                try (OutputStream encoder = Base64.getEncoder().wrap(new FilterOutputStream(sink.outputStream()) {
+                    @Override
+                    public void close() throws IOException {
+                        flush();
+                    }
+                })) {
+                    Files.copy(imageFile, encoder);
+                }
+                sink.write(tail);
+            }
+        };
+        try (Response response = client.newCall(request(subpopulationGuid).post(body).build()).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("createConsentSignature returned " + response.code() + ": "
+                        + response.body().string());
+            }
+        }
+        return contentLength;
+    }
+
+    /** Reads the user's signature for the subpopulation and returns a digest of its image. */
+    public SignatureImage getConsentSignature(String subpopulationGuid) throws IOException {
+        checkNotNull(subpopulationGuid);
+        try (Response response = client.newCall(request(subpopulationGuid).get().build()).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("getConsentSignature returned " + response.code() + ": "
+                        + response.body().string());
+            }
+            CountingInputStream counted = new CountingInputStream(response.body().byteStream());
+            String imageMimeType = null;
+            long imageBytes = 0L;
+            byte[] sha256 = null;
+            try (JsonReader reader = new JsonReader(new InputStreamReader(counted, StandardCharsets.UTF_8))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("imageData".equals(name)) {
+                        MessageDigest digest = sha256();
+                        try (InputStream decoder = Base64.getDecoder().wrap(new StringByteStream(
+                                reader.nextString()))) {
+                            byte[] buffer = new byte[8192];
+                            for (int read; (read = decoder.read(buffer)) != -1; ) {
+                                digest.update(buffer, 0, read);
+                                imageBytes += read;
+                            }
+                        }
+                        sha256 = digest.digest();
+                    } else if ("imageMimeType".equals(name)) {
+                        imageMimeType = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            return new SignatureImage(imageMimeType, imageBytes, sha256, counted.getCount());
+        }
+    }
+
+    /** SHA-256 of the file's contents, to compare against {@link SignatureImage#getSha256}. */
+    public static byte[] sha256(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    /** Length of the padded base64 encoding of the given number of bytes. */
+    public static long base64Length(long bytes) {
+        return 4 * ((bytes + 2) / 3);
+    }
+
+    private Request.Builder request(String subpopulationGuid) {
+        return new Request.Builder()
+                .url(user.getClientManager().getHostUrl() + "/v3/subpopulations/" + subpopulationGuid
+                        + "/consents/signature")
+                .header("Bridge-Session", user.getSession().getSessionToken());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Base64 text is ASCII, so its chars can be fed to the decoder as bytes without copying the string.
+    private static final class StringByteStream extends InputStream {
+        private final String value;
+        private int position;
+
+        StringByteStream(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int read() {
+            return (position < value.length()) ? value.charAt(position++) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= value.length()) {
+                return -1;
+            }
+            int count = Math.min(length, value.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte)value.charAt(position++);
+            }
+            return count;
+        }
+    }
+}
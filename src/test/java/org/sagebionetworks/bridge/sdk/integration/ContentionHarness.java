@@ -0,0 +1,290 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.exceptions.ConcurrentModificationException;
+
+/**
+ * Runs concurrent writers against one optimistically-versioned object (an upload schema, a study, ...) and reports
+ * how a client retry policy copes with the contention. Each writer makes a series of updates; an update reads the
+ * object, applies the writer's change and writes it back, and on a version conflict the {@link RetryPolicy} decides
+ * how long to wait and whether the change is re-applied to a fresh read or the original body is re-sent with only the
+ * version refreshed.
+ *
+ * <p>Besides throughput, conflict rate and latency (from first attempt to success, including retries), the harness
+ * checks that each writer's last successful change survived to the end of the run. Re-sending a stale body can
+ * silently overwrite other writers' changes, which shows up there as lost updates.</p>
+ */
+public class ContentionHarness<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(ContentionHarness.class);
+
+    /** The object under contention. */
+    public interface Target<T> {
+        T read() throws Exception;
+
+        /** Writes the object. Throws ConcurrentModificationException if its version is stale. */
+        void write(T value) throws Exception;
+
+        /** Applies one writer's change, identified by a token unique to that change. */
+        void apply(T value, String token);
+
+        /** True if the change with this token is present in the object. */
+        boolean isApplied(T value, String token);
+
+        /** Copies the optimistic-locking version from a fresh read onto a body that is about to be re-sent. */
+        void copyVersion(T from, T to);
+    }
+
+    /** What a writer does after a version conflict. */
+    public static class RetryPolicy {
+        private final String name;
+        private final int maxAttempts;
+        private final long initialBackoffMillis;
+        private final long maxBackoffMillis;
+        private final boolean reapply;
+
+        private RetryPolicy(String name, int maxAttempts, long initialBackoffMillis, long maxBackoffMillis,
+                boolean reapply) {
+            checkArgument(maxAttempts > 0);
+            this.name = name;
+            this.maxAttempts = maxAttempts;
+            this.initialBackoffMillis = initialBackoffMillis;
+            this.maxBackoffMillis = maxBackoffMillis;
+            this.reapply = reapply;
+        }
+
+        /** Re-sends the same body right away, with the version refreshed from a new read. */
+        public static RetryPolicy immediate(int maxAttempts) {
+            return new RetryPolicy("immediate", maxAttempts, 0L, 0L, false);
+        }
+
+        /**
+         * Re-sends the same body with the version refreshed, after an exponential backoff with full jitter (a random
+         * wait between zero and the current backoff, which doubles up to the maximum).
+         */
+        public static RetryPolicy backoff(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+            return new RetryPolicy("backoff", maxAttempts, initialBackoffMillis, maxBackoffMillis, false);
+        }
+
+        /** Reads the object again and re-applies the change to it, with no wait. */
+        public static RetryPolicy readMergeWrite(int maxAttempts) {
+            return new RetryPolicy("readMergeWrite", maxAttempts, 0L, 0L, true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        /** True if the change is re-applied to a fresh read, false if the original body is re-sent. */
+        public boolean isReapply() {
+            return reapply;
+        }
+
+        /** The wait before the given retry (1 for the first retry). */
+        public long getDelayMillis(int retry) {
+            if (initialBackoffMillis == 0L) {
+                return 0L;
+            }
+            long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(retry - 1, 20));
+            return ThreadLocalRandom.current().nextLong(ceiling + 1);
+        }
+    }
+
+    /** Outcome of one run. */
+    public static class Result {
+        private final String policyName;
+        private final int writers;
+        private final long elapsedMillis;
+        private final int successes;
+        private final int attempts;
+        private final int conflicts;
+        private final int rejected;
+        private final int gaveUp;
+        private final int lostUpdates;
+        private final LatencyRecorder latency;
+
+        Result(String policyName, int writers, long elapsedMillis, int successes, int attempts, int conflicts,
+                int rejected, int gaveUp, int lostUpdates, LatencyRecorder latency) {
+            this.policyName = policyName;
+            this.writers = writers;
+            this.elapsedMillis = elapsedMillis;
+            this.successes = successes;
+            this.attempts = attempts;
+            this.conflicts = conflicts;
+            this.rejected = rejected;
+            this.gaveUp = gaveUp;
+            this.lostUpdates = lostUpdates;
+            this.latency = latency;
+        }
+
+        public String getPolicyName() {
+            return policyName;
+        }
+
+        public int getWriters() {
+            return writers;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public int getSuccesses() {
+            return successes;
+        }
+
+        /** All writes sent, including retries. */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public int getConflicts() {
+            return conflicts;
+        }
+
+        /** Writes that failed with something other than a version conflict. */
+        public int getRejected() {
+            return rejected;
+        }
+
+        /** Updates abandoned after the policy's maximum attempts. */
+        public int getGaveUp() {
+            return gaveUp;
+        }
+
+        /** Writers whose last successful change was no longer present at the end of the run. */
+        public int getLostUpdates() {
+            return lostUpdates;
+        }
+
+        public double getSuccessesPerSecond() {
+            return LoadTestHelper.ratePerSecond(successes, elapsedMillis);
+        }
+
+        /** Conflicts as a fraction of all writes sent. */
+        public double getConflictRate() {
+            return (attempts == 0) ? 0.0 : (double)conflicts / attempts;
+        }
+
+        /** Latency of successful updates, from the first attempt to success. */
+        public LatencyRecorder getLatency() {
+            return latency;
+        }
+
+        public String summary() {
+            return String.format("%s, %d writers: %d updates in %dms (%.1f/s), %d attempts, conflict rate %.2f, "
+                    + "%d rejected, %d gave up, %d lost; %s", policyName, writers, successes, elapsedMillis,
+                    getSuccessesPerSecond(), attempts, getConflictRate(), rejected, gaveUp, lostUpdates,
+                    latency.summary());
+        }
+    }
+
+    private final Target<T> target;
+
+    public ContentionHarness(Target<T> target) {
+        checkNotNull(target);
+        this.target = target;
+    }
+
+    /**
+     * Runs the writers concurrently, each making the given number of updates, and then checks the final state of the
+     * object for lost updates.
+     */
+    public Result run(RetryPolicy policy, int writerCount, int updatesPerWriter) throws Exception {
+        checkNotNull(policy);
+        LatencyRecorder latency = new LatencyRecorder(policy.getName() + " update");
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger gaveUp = new AtomicInteger();
+
+        List<Callable<String>> writers = new ArrayList<>();
+        for (int w = 0; w < writerCount; w++) {
+            String writerId = policy.getName() + "_w" + w;
+            writers.add(() -> {
+                String lastApplied = null;
+                for (int i = 0; i < updatesPerWriter; i++) {
+                    String token = writerId + "_" + i;
+                    Outcome outcome = update(policy, token, latency, attempts, conflicts);
+                    if (outcome == Outcome.SUCCEEDED) {
+                        successes.incrementAndGet();
+                        lastApplied = token;
+                    } else if (outcome == Outcome.REJECTED) {
+                        rejected.incrementAndGet();
+                    } else {
+                        gaveUp.incrementAndGet();
+                    }
+                }
+                return lastApplied;
+            });
+        }
+        long start = System.currentTimeMillis();
+        List<String> lastApplied = LoadTestHelper.runConcurrently(writerCount, writers);
+        long elapsedMillis = System.currentTimeMillis() - start;
+
+        T finalValue = target.read();
+        int lostUpdates = 0;
+        for (String token : lastApplied) {
+            if (token != null && !target.isApplied(finalValue, token)) {
+                lostUpdates++;
+            }
+        }
+        Result result = new Result(policy.getName(), writerCount, elapsedMillis, successes.get(), attempts.get(),
+                conflicts.get(), rejected.get(), gaveUp.get(), lostUpdates, latency);
+        LOG.info(result.summary());
+        return result;
+    }
+
+    private enum Outcome { SUCCEEDED, REJECTED, GAVE_UP }
+
+    private Outcome update(RetryPolicy policy, String token, LatencyRecorder latency, AtomicInteger attempts,
+            AtomicInteger conflicts) throws Exception {
+        long start = System.currentTimeMillis();
+        T value = target.read();
+        target.apply(value, token);
+        for (int attempt = 1; ; attempt++) {
+            attempts.incrementAndGet();
+            try {
+                target.write(value);
+                latency.record(System.currentTimeMillis() - start);
+                return Outcome.SUCCEEDED;
+            } catch (ConcurrentModificationException ex) {
+                conflicts.incrementAndGet();
+                if (attempt >= policy.getMaxAttempts()) {
+                    latency.recordError();
+                    return Outcome.GAVE_UP;
+                }
+            } catch (Exception ex) {
+                LOG.warn("Update " + token + " rejected: " + ex.getMessage());
+                latency.recordError();
+                return Outcome.REJECTED;
+            }
+            long delay = policy.getDelayMillis(attempt);
+            if (delay > 0L) {
+                Thread.sleep(delay);
+            }
+            T fresh = target.read();
+            if (policy.isReapply()) {
+                target.apply(fresh, token);
+                value = fresh;
+            } else {
+                target.copyVersion(fresh, value);
+            }
+        }
+    }
+}
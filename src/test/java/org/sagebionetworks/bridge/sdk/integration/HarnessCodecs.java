@@ -0,0 +1,589 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.Activity;
+import org.sagebionetworks.bridge.rest.model.HealthDataRecord;
+import org.sagebionetworks.bridge.rest.model.ReportData;
+import org.sagebionetworks.bridge.rest.model.ReportDataList;
+import org.sagebionetworks.bridge.rest.model.ScheduleStatus;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivity;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityList;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+
+/**
+ * Hand-written streaming {@link TypeAdapter}s for the load harness's hot models (ScheduledActivity, ReportData,
+ * UploadSession, UploadValidationStatus and the lists of the first two), and {@link #GSON}, which is RestUtils.GSON
+ * with these adapters registered. Output matches {@link RestUtils#GSON} byte for byte (see HarnessCodecsTest). Harness
+ * code that serializes or parses these models itself uses {@link #GSON}, or {@link #toJson} and {@link #fromJson}.
+ *
+ * <p>Each adapter writes its model's fields by getter, in the order Gson's reflective adapter does: a class's own
+ * fields before its superclass's, each in declaration order. The generated models have no setters for
+ * server-assigned fields, so fields are read into the model through method handles looked up once, when the adapter
+ * is built, along with a check that the model has exactly the fields the adapter writes, in that order. An instance
+ * of a subclass of a hot model is not handled by these adapters; like Gson, it is written with the reflective
+ * adapter for its own class. Nested types without an adapter here (Activity, HealthDataRecord, the report's data)
+ * are handed to RestUtils.GSON's adapters.</p>
+ */
+public class HarnessCodecs {
+
+    private static final Gson REFERENCE = RestUtils.GSON;
+
+    private static final DateTimeFormatter DATE_TIME_PARSER = ISODateTimeFormat.dateTimeParser().withOffsetParsed();
+
+    private static final ScheduledActivityAdapter SCHEDULED_ACTIVITY = new ScheduledActivityAdapter();
+    private static final ScheduledActivityListAdapter SCHEDULED_ACTIVITY_LIST = new ScheduledActivityListAdapter();
+    private static final ReportDataAdapter REPORT_DATA = new ReportDataAdapter();
+    private static final ReportDataListAdapter REPORT_DATA_LIST = new ReportDataListAdapter();
+    private static final UploadSessionAdapter UPLOAD_SESSION = new UploadSessionAdapter();
+    private static final UploadValidationStatusAdapter UPLOAD_VALIDATION_STATUS = new UploadValidationStatusAdapter();
+
+    /** Returns the adapter for exactly one of the hot models, and nothing for their subclasses. */
+    public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<?> raw = type.getRawType();
+            if (raw == ScheduledActivity.class) {
+                return (TypeAdapter<T>)SCHEDULED_ACTIVITY;
+            } else if (raw == ScheduledActivityList.class) {
+                return (TypeAdapter<T>)SCHEDULED_ACTIVITY_LIST;
+            } else if (raw == ReportData.class) {
+                return (TypeAdapter<T>)REPORT_DATA;
+            } else if (raw == ReportDataList.class) {
+                return (TypeAdapter<T>)REPORT_DATA_LIST;
+            } else if (raw == UploadSession.class) {
+                return (TypeAdapter<T>)UPLOAD_SESSION;
+            } else if (raw == UploadValidationStatus.class) {
+                return (TypeAdapter<T>)UPLOAD_VALIDATION_STATUS;
+            }
+            return null;
+        }
+    };
+
+    /** RestUtils.GSON with {@link #FACTORY} registered: everything else is handled by RestUtils.GSON's adapters. */
+    public static final Gson GSON = buildGson();
+
+    private static Gson buildGson() {
+        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(FACTORY)
+                .registerTypeAdapterFactory(new TypeAdapterFactory() {
+                    @Override
+                    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                        return REFERENCE.getAdapter(type);
+                    }
+                });
+        // Gson escapes HTML characters (e.g. the & and = in upload URLs) unless told not to.
+        if (REFERENCE.toJson("&").equals("\"&\"")) {
+            builder.disableHtmlEscaping();
+        }
+        // Null fields are dropped by the writer unless the Gson was built with serializeNulls().
+        JsonObject probe = new JsonObject();
+        probe.add("probe", JsonNull.INSTANCE);
+        if (!REFERENCE.toJson(probe).equals("{}")) {
+            builder.serializeNulls();
+        }
+        return builder.create();
+    }
+
+    public static String toJson(Object value) {
+        return GSON.toJson(value);
+    }
+
+    public static <T> T fromJson(String json, Class<T> cls) {
+        return GSON.fromJson(json, cls);
+    }
+
+    private static final class ScheduledActivityAdapter extends ModelAdapter<ScheduledActivity> {
+        private static final TypeAdapter<Activity> ACTIVITY = REFERENCE.getAdapter(Activity.class);
+        private static final TypeAdapter<ScheduleStatus> STATUS = REFERENCE.getAdapter(ScheduleStatus.class);
+
+        private final MethodHandle guid = setter(ScheduledActivity.class, "guid");
+        private final MethodHandle activity = setter(ScheduledActivity.class, "activity");
+        private final MethodHandle status = setter(ScheduledActivity.class, "status");
+        private final MethodHandle scheduledOn = setter(ScheduledActivity.class, "scheduledOn");
+        private final MethodHandle expiresOn = setter(ScheduledActivity.class, "expiresOn");
+        private final MethodHandle startedOn = setter(ScheduledActivity.class, "startedOn");
+        private final MethodHandle finishedOn = setter(ScheduledActivity.class, "finishedOn");
+        private final MethodHandle persistent = setter(ScheduledActivity.class, "persistent");
+
+        ScheduledActivityAdapter() {
+            super(ScheduledActivity.class, ScheduledActivity::new, "guid", "activity", "status", "scheduledOn",
+                    "expiresOn", "startedOn", "finishedOn", "persistent");
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ScheduledActivity value) throws IOException {
+            out.name("guid").value(value.getGuid());
+            out.name("activity");
+            writeValue(out, Activity.class, ACTIVITY, value.getActivity());
+            out.name("status");
+            STATUS.write(out, value.getStatus());
+            out.name("scheduledOn");
+            Dates.writeDateTime(out, value.getScheduledOn());
+            out.name("expiresOn");
+            Dates.writeDateTime(out, value.getExpiresOn());
+            out.name("startedOn");
+            Dates.writeDateTime(out, value.getStartedOn());
+            out.name("finishedOn");
+            Dates.writeDateTime(out, value.getFinishedOn());
+            out.name("persistent");
+            writeBoolean(out, value.getPersistent());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, ScheduledActivity value) throws IOException {
+            switch (name) {
+                case "guid":
+                    set(guid, value, readString(in));
+                    return true;
+                case "activity":
+                    set(activity, value, ACTIVITY.read(in));
+                    return true;
+                case "status":
+                    set(status, value, STATUS.read(in));
+                    return true;
+                case "scheduledOn":
+                    set(scheduledOn, value, Dates.readDateTime(in));
+                    return true;
+                case "expiresOn":
+                    set(expiresOn, value, Dates.readDateTime(in));
+                    return true;
+                case "startedOn":
+                    set(startedOn, value, Dates.readDateTime(in));
+                    return true;
+                case "finishedOn":
+                    set(finishedOn, value, Dates.readDateTime(in));
+                    return true;
+                case "persistent":
+                    set(persistent, value, readBoolean(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class ScheduledActivityListAdapter extends ModelAdapter<ScheduledActivityList> {
+        private final MethodHandle items = setter(ScheduledActivityList.class, "items");
+        private final MethodHandle total = setter(ScheduledActivityList.class, "total");
+
+        ScheduledActivityListAdapter() {
+            super(ScheduledActivityList.class, ScheduledActivityList::new, "items", "total");
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ScheduledActivityList value) throws IOException {
+            out.name("items");
+            writeList(out, ScheduledActivity.class, SCHEDULED_ACTIVITY, value.getItems());
+            out.name("total").value(value.getTotal());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, ScheduledActivityList value) throws IOException {
+            switch (name) {
+                case "items":
+                    set(items, value, readList(in, SCHEDULED_ACTIVITY));
+                    return true;
+                case "total":
+                    set(total, value, readInteger(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class ReportDataAdapter extends ModelAdapter<ReportData> {
+        private static final TypeAdapter<Object> DATA = REFERENCE.getAdapter(Object.class);
+
+        private final MethodHandle date = setter(ReportData.class, "date");
+        private final MethodHandle data = setter(ReportData.class, "data");
+
+        ReportDataAdapter() {
+            super(ReportData.class, ReportData::new, "date", "data");
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ReportData value) throws IOException {
+            out.name("date");
+            Dates.writeLocalDate(out, value.getDate());
+            out.name("data");
+            writeValue(out, Object.class, DATA, value.getData());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, ReportData value) throws IOException {
+            switch (name) {
+                case "date":
+                    set(date, value, Dates.readLocalDate(in));
+                    return true;
+                case "data":
+                    set(data, value, DATA.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class ReportDataListAdapter extends ModelAdapter<ReportDataList> {
+        private final MethodHandle items = setter(ReportDataList.class, "items");
+        private final MethodHandle total = setter(ReportDataList.class, "total");
+        private final MethodHandle startDate = setter(ReportDataList.class, "startDate");
+        private final MethodHandle endDate = setter(ReportDataList.class, "endDate");
+
+        ReportDataListAdapter() {
+            super(ReportDataList.class, ReportDataList::new, "items", "total", "startDate", "endDate");
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ReportDataList value) throws IOException {
+            out.name("items");
+            writeList(out, ReportData.class, REPORT_DATA, value.getItems());
+            out.name("total").value(value.getTotal());
+            out.name("startDate");
+            Dates.writeLocalDate(out, value.getStartDate());
+            out.name("endDate");
+            Dates.writeLocalDate(out, value.getEndDate());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, ReportDataList value) throws IOException {
+            switch (name) {
+                case "items":
+                    set(items, value, readList(in, REPORT_DATA));
+                    return true;
+                case "total":
+                    set(total, value, readInteger(in));
+                    return true;
+                case "startDate":
+                    set(startDate, value, Dates.readLocalDate(in));
+                    return true;
+                case "endDate":
+                    set(endDate, value, Dates.readLocalDate(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class UploadSessionAdapter extends ModelAdapter<UploadSession> {
+        private final MethodHandle id = setter(UploadSession.class, "id");
+        private final MethodHandle url = setter(UploadSession.class, "url");
+        private final MethodHandle expires = setter(UploadSession.class, "expires");
+
+        UploadSessionAdapter() {
+            super(UploadSession.class, UploadSession::new, "id", "url", "expires");
+        }
+
+        @Override
+        void writeFields(JsonWriter out, UploadSession value) throws IOException {
+            out.name("id").value(value.getId());
+            out.name("url").value(value.getUrl());
+            out.name("expires");
+            Dates.writeDateTime(out, value.getExpires());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, UploadSession value) throws IOException {
+            switch (name) {
+                case "id":
+                    set(id, value, readString(in));
+                    return true;
+                case "url":
+                    set(url, value, readString(in));
+                    return true;
+                case "expires":
+                    set(expires, value, Dates.readDateTime(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class UploadValidationStatusAdapter extends ModelAdapter<UploadValidationStatus> {
+        private static final TypeAdapter<UploadStatus> STATUS = REFERENCE.getAdapter(UploadStatus.class);
+        private static final TypeAdapter<String> MESSAGE = REFERENCE.getAdapter(String.class);
+        private static final TypeAdapter<HealthDataRecord> RECORD = REFERENCE.getAdapter(HealthDataRecord.class);
+
+        private final MethodHandle id = setter(UploadValidationStatus.class, "id");
+        private final MethodHandle status = setter(UploadValidationStatus.class, "status");
+        private final MethodHandle messageList = setter(UploadValidationStatus.class, "messageList");
+        private final MethodHandle record = setter(UploadValidationStatus.class, "record");
+
+        UploadValidationStatusAdapter() {
+            super(UploadValidationStatus.class, UploadValidationStatus::new, "id", "status", "messageList",
+                    "record");
+        }
+
+        @Override
+        void writeFields(JsonWriter out, UploadValidationStatus value) throws IOException {
+            out.name("id").value(value.getId());
+            out.name("status");
+            STATUS.write(out, value.getStatus());
+            out.name("messageList");
+            writeList(out, String.class, MESSAGE, value.getMessageList());
+            out.name("record");
+            writeValue(out, HealthDataRecord.class, RECORD, value.getRecord());
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, UploadValidationStatus value) throws IOException {
+            switch (name) {
+                case "id":
+                    set(id, value, readString(in));
+                    return true;
+                case "status":
+                    set(status, value, STATUS.read(in));
+                    return true;
+                case "messageList":
+                    set(messageList, value, readList(in, MESSAGE));
+                    return true;
+                case "record":
+                    set(record, value, RECORD.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * The object braces, nulls and unknown names for a model adapter. Subclasses write every field and read the ones
+     * they know; like Gson, a JSON null sets the field to null.
+     */
+    private abstract static class ModelAdapter<T> extends TypeAdapter<T> {
+        private final Supplier<T> constructor;
+
+        ModelAdapter(Class<T> cls, Supplier<T> constructor, String... fieldNames) {
+            this.constructor = constructor;
+            List<String> gsonFields = gsonFieldNames(cls);
+            if (!gsonFields.equals(Arrays.asList(fieldNames))) {
+                throw new IllegalStateException(String.format("%s has fields %s, but its harness adapter has %s",
+                        cls.getSimpleName(), gsonFields, Arrays.asList(fieldNames)));
+            }
+        }
+
+        abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+        /** Reads the named field into the model, or returns false if the model has no such field. */
+        abstract boolean readField(JsonReader in, String name, T value) throws IOException;
+
+        @Override
+        public final void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeFields(out, value);
+            out.endObject();
+        }
+
+        @Override
+        public final T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            T value = constructor.get();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!readField(in, in.nextName(), value)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    // The names Gson's reflective adapter writes for a class, in the order it writes them.
+    private static List<String> gsonFieldNames(Class<?> cls) {
+        List<String> names = new ArrayList<>();
+        for (Class<?> c = cls; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    SerializedName serializedName = field.getAnnotation(SerializedName.class);
+                    names.add(serializedName != null ? serializedName.value() : field.getName());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static MethodHandle setter(Class<?> cls, String fieldName) {
+        try {
+            Field field = cls.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectSetter(field);
+        } catch (NoSuchFieldException | IllegalAccessException ex) {
+            throw new IllegalStateException("Cannot set " + cls.getSimpleName() + "." + fieldName, ex);
+        }
+    }
+
+    private static void set(MethodHandle setter, Object target, Object value) {
+        try {
+            setter.invoke(target, value);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    // Like Gson's reflective adapter, a value of a subclass of the declared type is written with the adapter for its
+    // own class, so the fields the subclass adds are kept.
+    @SuppressWarnings("unchecked")
+    private static <T> void writeValue(JsonWriter out, Class<T> declared, TypeAdapter<T> adapter, T value)
+            throws IOException {
+        if (value == null || value.getClass() == declared) {
+            adapter.write(out, value);
+        } else {
+            ((TypeAdapter<Object>)REFERENCE.getAdapter(value.getClass())).write(out, value);
+        }
+    }
+
+    private static <T> void writeList(JsonWriter out, Class<T> declared, TypeAdapter<T> adapter, List<T> list)
+            throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (T element : list) {
+            writeValue(out, declared, adapter, element);
+        }
+        out.endArray();
+    }
+
+    private static <T> List<T> readList(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<T> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(adapter.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static void writeBoolean(JsonWriter out, Boolean value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(value.booleanValue());
+        }
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static Boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextBoolean();
+    }
+
+    private static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextInt();
+    }
+
+    /**
+     * DateTime and LocalDate written and parsed as ISO strings directly, if that is what RestUtils.GSON does for a
+     * probe value. Otherwise RestUtils.GSON's own adapter is used for that type.
+     */
+    private static final class Dates {
+        private static final TypeAdapter<DateTime> DATE_TIME = REFERENCE.getAdapter(DateTime.class);
+        private static final TypeAdapter<LocalDate> LOCAL_DATE = REFERENCE.getAdapter(LocalDate.class);
+        private static final boolean DIRECT_DATE_TIME;
+        private static final boolean DIRECT_LOCAL_DATE;
+        static {
+            DateTime dateTime = new DateTime(2016, 10, 3, 9, 5, 7, 123, DateTimeZone.forOffsetHours(-7));
+            String dateTimeJson = REFERENCE.toJson(dateTime, DateTime.class);
+            DIRECT_DATE_TIME = dateTimeJson.equals("\"" + dateTime + "\"")
+                    && dateTime.equals(REFERENCE.fromJson(dateTimeJson, DateTime.class))
+                    && dateTime.equals(DATE_TIME_PARSER.parseDateTime(dateTime.toString()));
+
+            LocalDate localDate = new LocalDate(2016, 10, 3);
+            String localDateJson = REFERENCE.toJson(localDate, LocalDate.class);
+            DIRECT_LOCAL_DATE = localDateJson.equals("\"" + localDate + "\"")
+                    && localDate.equals(REFERENCE.fromJson(localDateJson, LocalDate.class));
+        }
+
+        static void writeDateTime(JsonWriter out, DateTime value) throws IOException {
+            if (value != null && DIRECT_DATE_TIME) {
+                out.value(value.toString());
+            } else {
+                DATE_TIME.write(out, value);
+            }
+        }
+
+        static DateTime readDateTime(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL || !DIRECT_DATE_TIME) {
+                return DATE_TIME.read(in);
+            }
+            return DATE_TIME_PARSER.parseDateTime(in.nextString());
+        }
+
+        static void writeLocalDate(JsonWriter out, LocalDate value) throws IOException {
+            if (value != null && DIRECT_LOCAL_DATE) {
+                out.value(value.toString());
+            } else {
+                LOCAL_DATE.write(out, value);
+            }
+        }
+
+        static LocalDate readLocalDate(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL || !DIRECT_LOCAL_DATE) {
+                return LOCAL_DATE.read(in);
+            }
+            return LocalDate.parse(in.nextString());
+        }
+    }
+}
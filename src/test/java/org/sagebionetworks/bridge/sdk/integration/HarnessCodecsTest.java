@@ -0,0 +1,138 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.rest.model.ReportData;
+import org.sagebionetworks.bridge.rest.model.ReportDataList;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivity;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityList;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+
+/**
+ * Verifies {@link HarnessCodecs} against {@link RestUtils#GSON}: serializing any object must produce the same bytes,
+ * and parsing must produce an object that RestUtils.GSON serializes to the same bytes. Runs without a server.
+ */
+public class HarnessCodecsTest {
+    private static final Logger LOG = LoggerFactory.getLogger(HarnessCodecsTest.class);
+
+    private static final int[] LIST_SIZES = { 0, 1, 25 };
+
+    @Test
+    public void scheduledActivityMatchesGson() {
+        for (int size : LIST_SIZES) {
+            assertMatchesGson(ModelFixtures.scheduledActivityListJson(size), ScheduledActivityList.class);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertMatchesGson(ModelFixtures.scheduledActivityJson(i), ScheduledActivity.class);
+        }
+    }
+
+    @Test
+    public void reportDataMatchesGson() {
+        for (int size : LIST_SIZES) {
+            assertMatchesGson(ModelFixtures.reportDataListJson(size), ReportDataList.class);
+        }
+        assertMatchesGson(ModelFixtures.reportDataJson(3), ReportData.class);
+    }
+
+    @Test
+    public void uploadSessionMatchesGson() {
+        // The URL has characters Gson escapes by default.
+        for (int i = 0; i < 3; i++) {
+            assertMatchesGson(ModelFixtures.uploadSessionJson(i), UploadSession.class);
+        }
+    }
+
+    @Test
+    public void uploadValidationStatusMatchesGson() {
+        // Fixture 0 is a failed validation with a message, fixture 1 succeeded with none.
+        assertMatchesGson(ModelFixtures.uploadValidationStatusJson(0), UploadValidationStatus.class);
+        assertMatchesGson(ModelFixtures.uploadValidationStatusJson(1), UploadValidationStatus.class);
+    }
+
+    @Test
+    public void subclassOfHotModelMatchesGson() {
+        // Gson writes a subclass's own fields before the ones it inherits.
+        PinnedActivity pinned = RestUtils.GSON.fromJson(ModelFixtures.scheduledActivityJson(1), PinnedActivity.class);
+        pinned.pinnedBy = "coordinator";
+        String expected = RestUtils.GSON.toJson(pinned);
+        assertTrue(expected, expected.startsWith("{\"pinnedBy\":\"coordinator\","));
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8),
+                HarnessCodecs.toJson(pinned).getBytes(StandardCharsets.UTF_8));
+
+        // As a list element, where the declared type is the hot model.
+        ScheduledActivityList list = RestUtils.GSON.fromJson(ModelFixtures.scheduledActivityListJson(3),
+                ScheduledActivityList.class);
+        list.getItems().set(1, pinned);
+        assertArrayEquals(RestUtils.GSON.toJson(list).getBytes(StandardCharsets.UTF_8),
+                HarnessCodecs.toJson(list).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void modelsWithoutCodecsFallBackToGson() {
+        String json = ModelFixtures.consentSignatureJson(1);
+        ConsentSignature signature = RestUtils.GSON.fromJson(json, ConsentSignature.class);
+        assertEquals(RestUtils.GSON.toJson(signature), HarnessCodecs.toJson(signature));
+    }
+
+    @Test
+    @Category(LoadTest.class)
+    public void codecThroughputComparedToGson() {
+        int iterations = LoadTestHelper.getIntProperty("load.iterations", 2000);
+        String json = ModelFixtures.scheduledActivityListJson(100);
+        ScheduledActivityList list = RestUtils.GSON.fromJson(json, ScheduledActivityList.class);
+
+        // Warm both paths up before timing.
+        for (int i = 0; i < iterations; i++) {
+            RestUtils.GSON.toJson(RestUtils.GSON.fromJson(json, ScheduledActivityList.class));
+            HarnessCodecs.toJson(HarnessCodecs.fromJson(json, ScheduledActivityList.class));
+        }
+        long gsonMillis = timeRoundTrips(iterations, () -> RestUtils.GSON.toJson(
+                RestUtils.GSON.fromJson(json, ScheduledActivityList.class)));
+        long codecMillis = timeRoundTrips(iterations, () -> HarnessCodecs.toJson(
+                HarnessCodecs.fromJson(json, ScheduledActivityList.class)));
+        LOG.info(String.format("%d round trips of a %d item ScheduledActivityList (%d bytes): RestUtils.GSON %d ms, "
+                + "HarnessCodecs %d ms (%.2fx)", iterations, list.getItems().size(), json.length(), gsonMillis,
+                codecMillis, (double)gsonMillis / Math.max(1, codecMillis)));
+    }
+
+    private static class PinnedActivity extends ScheduledActivity {
+        private String pinnedBy;
+    }
+
+    private static long timeRoundTrips(int iterations, Runnable roundTrip) {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < iterations; i++) {
+            roundTrip.run();
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private static <T> void assertMatchesGson(String json, Class<T> cls) {
+        T viaGson = RestUtils.GSON.fromJson(json, cls);
+        byte[] expected = RestUtils.GSON.toJson(viaGson).getBytes(StandardCharsets.UTF_8);
+
+        // Writing
+        assertArrayEquals(cls.getSimpleName() + " written by codec", expected,
+                HarnessCodecs.toJson(viaGson).getBytes(StandardCharsets.UTF_8));
+
+        // Reading
+        T viaCodec = HarnessCodecs.fromJson(json, cls);
+        assertNotNull(viaCodec);
+        assertArrayEquals(cls.getSimpleName() + " read by codec", expected,
+                RestUtils.GSON.toJson(viaCodec).getBytes(StandardCharsets.UTF_8));
+    }
+}
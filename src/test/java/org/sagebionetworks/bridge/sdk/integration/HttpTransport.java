@@ -0,0 +1,261 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * The HTTP transport every TestUser's API clients run over (see {@link ClientVariants}), along with the harness's raw
+ * OkHttp calls: one connection pool and one dispatcher, however many virtual users a scenario runs. Limits and
+ * keep-alive are set with system properties: -Dload.http.maxRequests (in use in total), -Dload.http.maxRequestsPerHost
+ * (in use against one host), -Dload.http.maxIdleConnections and -Dload.http.keepAliveSeconds. The limits hold for
+ * synchronous calls too; callers over a limit wait for a slot.
+ *
+ * <p>A call holds its slot from when it is sent until its response body is closed, so a body that is still streaming
+ * (a large download, say) counts against the limits, and since a connection goes back to the pool before the slot is
+ * released, the pool never needs more connections to a host than that host's limit. A response body that is never
+ * closed keeps its slot, as it keeps its connection. Calls made directly through an SDK ClientManager (admin clean-up,
+ * for instance) don't use this transport and aren't limited or counted here.</p>
+ *
+ * <p>Utilization is tracked as calls go through: calls in use and the peak, connections the pool holds and how many are
+ * idle, and how many distinct connections have carried requests.</p>
+ */
+public final class HttpTransport {
+    private static final HttpTransport INSTANCE = new HttpTransport(
+            LoadTestHelper.getIntProperty("load.http.maxRequests", 256),
+            LoadTestHelper.getIntProperty("load.http.maxRequestsPerHost", 64),
+            LoadTestHelper.getIntProperty("load.http.maxIdleConnections", 64),
+            LoadTestHelper.getIntProperty("load.http.keepAliveSeconds", 300));
+
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final Semaphore totalSlots;
+    private final Map<String, Semaphore> hostSlots = new ConcurrentHashMap<>();
+    private final ConnectionPool connectionPool;
+    private final Dispatcher dispatcher;
+    private final OkHttpClient client;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong waitMillis = new AtomicLong();
+    // Connections seen since the last reset, held weakly so closed connections can be collected. Connections don't
+    // override equals(), so this is an identity set.
+    private final Set<Connection> connectionsSeen = Collections.synchronizedSet(Collections.newSetFromMap(
+            new WeakHashMap<>()));
+    private final AtomicInteger connectionsUsed = new AtomicInteger();
+
+    /** The one transport for the harness's clients. */
+    public static HttpTransport get() {
+        return INSTANCE;
+    }
+
+    HttpTransport(int maxRequests, int maxRequestsPerHost, int maxIdleConnections, int keepAliveSeconds) {
+        checkArgument(maxRequests > 0);
+        checkArgument(maxRequestsPerHost > 0 && maxRequestsPerHost <= maxRequests);
+        checkArgument(maxIdleConnections >= 0);
+        checkArgument(keepAliveSeconds > 0);
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.totalSlots = new Semaphore(maxRequests, true);
+        this.connectionPool = new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS);
+
+        // The dispatcher only limits asynchronous calls; the slot interceptor limits the synchronous ones.
+        this.dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        this.client = newClient();
+    }
+
+    /**
+     * The shared client. Clients derived from it with newBuilder() keep its connection pool and limits, but their
+     * interceptors run inside the slot; see {@link #newClient}.
+     */
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * A client on the shared pool and limits whose interceptors run outside the slot, so each request they send takes
+     * and releases its own. An interceptor that retries, or that makes other calls (a sign-in on a 401, for instance),
+     * must be added here: run inside a slot, it would hold that slot while waiting for another one.
+     */
+    public OkHttpClient newClient(Interceptor... interceptors) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder().connectionPool(connectionPool)
+                .dispatcher(dispatcher);
+        for (Interceptor interceptor : interceptors) {
+            builder.addInterceptor(interceptor);
+        }
+        return builder.addInterceptor(this::limit).addNetworkInterceptor(chain -> {
+            requests.incrementAndGet();
+            if (chain.connection() != null && connectionsSeen.add(chain.connection())) {
+                connectionsUsed.incrementAndGet();
+            }
+            return chain.proceed(chain.request());
+        }).build();
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /** Calls sent whose response body hasn't been closed yet. */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    /** Requests sent over the network, counting retries made by interceptors. */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /** Total time calls spent waiting for a slot under the limits. */
+    public long getWaitMillis() {
+        return waitMillis.get();
+    }
+
+    /** Connections in the pool now, in use or idle. */
+    public int getConnectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    public int getIdleConnectionCount() {
+        return connectionPool.idleConnectionCount();
+    }
+
+    /** Distinct connections that have carried a request since the last reset. */
+    public int getConnectionsUsed() {
+        return connectionsUsed.get();
+    }
+
+    /** Clears the peak and counters, so each tier of a scenario reports its own. */
+    public void resetCounters() {
+        peakInFlight.set(inFlight.get());
+        requests.set(0L);
+        waitMillis.set(0L);
+        connectionsSeen.clear();
+        connectionsUsed.set(0);
+    }
+
+    public String summary() {
+        return String.format("http transport: requests=%d, inFlight=%d, peakInFlight=%d (max %d, %d per host), "
+                + "waited=%dms, pool connections=%d (%d idle), connections used=%d", getRequests(), getInFlight(),
+                getPeakInFlight(), maxRequests, maxRequestsPerHost, getWaitMillis(), getConnectionCount(),
+                getIdleConnectionCount(), getConnectionsUsed());
+    }
+
+    // Takes a slot for the host and one overall, and hands them back when the response body is closed (or right away
+    // if the call fails).
+    private Response limit(Interceptor.Chain chain) throws IOException {
+        Semaphore hostSlot = hostSlots.computeIfAbsent(chain.request().url().host(),
+                host -> new Semaphore(maxRequestsPerHost, true));
+        acquire(hostSlot);
+        try {
+            acquire(totalSlots);
+        } catch (IOException ex) {
+            hostSlot.release();
+            throw ex;
+        }
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                totalSlots.release();
+                hostSlot.release();
+            }
+        };
+
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException ex) {
+            release.run();
+            throw ex;
+        }
+        if (response.body() == null) {
+            release.run();
+            return response;
+        }
+        return response.newBuilder().body(new SlotBody(response.body(), release)).build();
+    }
+
+    private void acquire(Semaphore slots) throws InterruptedIOException {
+        long start = System.currentTimeMillis();
+        try {
+            slots.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for an HTTP slot");
+        }
+        waitMillis.addAndGet(System.currentTimeMillis() - start);
+    }
+
+    // A response body that releases its call's slots when it is closed. ResponseBody.close(), string() and the
+    // Retrofit converters all close the body through its source, so the source's close() is the one hook.
+    private static final class SlotBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        SlotBody(ResponseBody delegate, Runnable release) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release.run();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Times createSurvey, versionSurvey, publishSurvey and getPublishedSurveyVersion for surveys generated by
+ * {@link TestSurvey#getLargeSurvey}, as the number of questions grows.
+ */
+@Category(LoadTest.class)
+public class LargeSurveyBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(LargeSurveyBenchmarkTest.class);
+
+    // Questions of each of the 9 constraint types, so 50 is a 450 question survey.
+    private static final List<Integer> QUESTIONS_PER_TYPE = LoadTestHelper.getIntListProperty("load.surveySizes",
+            "1,10,25,50");
+    private static final int ENUMERATION_SIZE = LoadTestHelper.getIntProperty("load.enumerationSize", 50);
+    private static final int RULES_PER_TYPE_COUNT = LoadTestHelper.getIntProperty("load.rulesPerQuestion", 2);
+    private static final int ITERATIONS = LoadTestHelper.getIntProperty("load.iterations", 3);
+
+    private static TestUser developer;
+    private static TestUser user;
+
+    private ResourceCleaner cleaner;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(LargeSurveyBenchmarkTest.class, false, Role.DEVELOPER);
+        user = TestUserHelper.createAndSignInUser(LargeSurveyBenchmarkTest.class, true);
+    }
+
+    @Before
+    public void before() {
+        cleaner = new ResourceCleaner(TestUserHelper.getSignedInAdmin());
+    }
+
+    @After
+    public void after() throws Exception {
+        cleaner.cleanup();
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteUser() throws Exception {
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void surveyOperationsAsSizeGrows() throws Exception {
+        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+
+        for (int questionsPerType : QUESTIONS_PER_TYPE) {
+            String label = (questionsPerType * 9) + " questions";
+            LatencyRecorder create = new LatencyRecorder("createSurvey, " + label);
+            LatencyRecorder version = new LatencyRecorder("versionSurvey, " + label);
+            LatencyRecorder publish = new LatencyRecorder("publishSurvey, " + label);
+            LatencyRecorder getPublished = new LatencyRecorder("getPublishedSurveyVersion, " + label);
+
+            for (int i = 0; i < ITERATIONS; i++) {
+                Survey survey = TestSurvey.getLargeSurvey(LargeSurveyBenchmarkTest.class, questionsPerType,
+                        ENUMERATION_SIZE, questionsPerType * RULES_PER_TYPE_COUNT);
+                if (i == 0) {
+                    int bytes = RestUtils.GSON.toJson(survey).getBytes(StandardCharsets.UTF_8).length;
+                    LOG.info(label + ": request payload is " + bytes + " bytes");
+                }
+
+                GuidCreatedOnVersionHolder keys = create.time(() -> surveysApi.createSurvey(survey).execute().body());
+                cleaner.registerSurvey(keys);
+
+                GuidCreatedOnVersionHolder versionKeys = version.time(() -> surveysApi
+                        .versionSurvey(keys.getGuid(), keys.getCreatedOn()).execute().body());
+                cleaner.registerSurvey(versionKeys);
+
+                publish.time(() -> surveysApi.publishSurvey(versionKeys.getGuid(), versionKeys.getCreatedOn(), false)
+                        .execute().body());
+
+                Survey published = getPublished.time(() -> usersApi.getPublishedSurveyVersion(versionKeys.getGuid())
+                        .execute().body());
+                assertEquals(questionsPerType * 9, published.getElements().size());
+            }
+            create.log();
+            version.log();
+            publish.log();
+            getPublished.log();
+        }
+    }
+}
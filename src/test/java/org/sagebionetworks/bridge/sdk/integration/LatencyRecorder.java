@@ -0,0 +1,96 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the latencies of one operation across all the threads of a load scenario, and reports the distribution.
+ * Samples are kept in memory, so a recorder should only live as long as the scenario that uses it.
+ */
+public class LatencyRecorder {
+    private static final Logger LOG = LoggerFactory.getLogger(LatencyRecorder.class);
+
+    private final String name;
+    private final List<Long> samples = new ArrayList<>();
+    private final AtomicInteger errorCount = new AtomicInteger();
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized void record(long millis) {
+        samples.add(millis);
+    }
+
+    public void recordError() {
+        errorCount.incrementAndGet();
+    }
+
+    /** Runs the callable, recording its latency if it succeeds and an error if it throws. */
+    public <T> T time(Callable<T> callable) throws Exception {
+        long start = System.nanoTime();
+        try {
+            T result = callable.call();
+            record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        } catch (Exception ex) {
+            recordError();
+            throw ex;
+        }
+    }
+
+    public synchronized int getCount() {
+        return samples.size();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    /** Nearest-rank percentile, e.g. 0.99 for p99. Returns 0 if nothing has been recorded. */
+    public synchronized long getPercentile(double percentile) {
+        if (samples.isEmpty()) {
+            return 0L;
+        }
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int rank = (int)Math.ceil(percentile * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    public synchronized long getMax() {
+        return samples.isEmpty() ? 0L : Collections.max(samples);
+    }
+
+    public synchronized double getMean() {
+        if (samples.isEmpty()) {
+            return 0.0;
+        }
+        long total = 0L;
+        for (long sample : samples) {
+            total += sample;
+        }
+        return (double)total / samples.size();
+    }
+
+    public String summary() {
+        return String.format("%s: count=%d, errors=%d, mean=%.1fms, p50=%dms, p90=%dms, p99=%dms, max=%dms", name,
+                getCount(), getErrorCount(), getMean(), getPercentile(0.5), getPercentile(0.9),
+                getPercentile(0.99), getMax());
+    }
+
+    public void log() {
+        LOG.info(summary());
+    }
+}
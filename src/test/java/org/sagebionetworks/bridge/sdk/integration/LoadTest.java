@@ -0,0 +1,5 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+public interface LoadTest {
+
+}
@@ -0,0 +1,146 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.Config;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Shared plumbing for the {@link LoadTest} scenarios. Scenario sizes are read from system properties so the same
+ * test can be run small on a laptop and large from a load-generation box, e.g.
+ * <code>mvn test -DjunitCategory=loadTests -Dload.users=200</code>.
+ */
+public class LoadTestHelper {
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTestHelper.class);
+
+    // Creating and deleting users is setup, not load; this many at a time is enough.
+    private static final int SETUP_THREADS = getIntProperty("load.setupThreads", 20);
+
+    public static int getIntProperty(String name, int defaultValue) {
+        return Integer.getInteger(name, defaultValue);
+    }
+
+    /** Reads a comma-separated list of integers, e.g. -Dload.surveySizes=10,50,100. */
+    public static List<Integer> getIntListProperty(String name, String defaultValue) {
+        List<Integer> values = new ArrayList<>();
+        for (String value : System.getProperty(name, defaultValue).split(",")) {
+            values.add(Integer.parseInt(value.trim()));
+        }
+        return values;
+    }
+
+    /**
+     * Appends benchmark rows to target/load-results/&lt;name&gt;.csv, so runs against different server versions can be
+     * compared. Each row is prefixed with the time, the run label (-Dload.label, e.g. the server version under test)
+     * and the environment.
+     */
+    public static void appendResults(String name, String header, List<String> rows) throws IOException {
+        File directory = new File(System.getProperty("load.resultsDir", "target/load-results"));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create results directory " + directory);
+        }
+        File file = new File(directory, name + ".csv");
+        boolean writeHeader = !file.exists();
+        String prefix = DateTime.now().toString() + "," + System.getProperty("load.label", "unlabeled") + ","
+                + new Config().getEnvironment().name().toLowerCase() + ",";
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            if (writeHeader) {
+                writer.write("recordedOn,label,environment," + header + "\n");
+            }
+            for (String row : rows) {
+                writer.write(prefix + row + "\n");
+            }
+        }
+        LOG.info("Appended " + rows.size() + " result(s) to " + file.getAbsolutePath());
+    }
+
+    /**
+     * Runs all the tasks on a pool of the given size and waits for them to finish. Results are returned in task
+     * order. If any task fails, the first failure (in task order) is rethrown once all tasks have completed.
+     */
+    public static <T> List<T> runConcurrently(int threadCount, List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threadCount, tasks.size())));
+        try {
+            List<Future<T>> futures = executor.invokeAll(tasks);
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception)cause;
+                    }
+                    throw ex;
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static double ratePerSecond(long count, long elapsedMillis) {
+        return (elapsedMillis == 0L) ? 0.0 : (count * 1000.0) / elapsedMillis;
+    }
+
+    /**
+     * Creates and signs in the given number of users, -Dload.setupThreads (default 20) at a time. If any of them
+     * can't be created, the ones that were are deleted before the failure is rethrown.
+     */
+    public static List<TestUser> createUsers(Class<?> cls, int count, boolean consentUser, Role... roles)
+            throws Exception {
+        List<TestUser> created = Collections.synchronizedList(new ArrayList<>());
+        List<Callable<TestUser>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(() -> {
+                TestUser user = TestUserHelper.createAndSignInUser(cls, consentUser, roles);
+                created.add(user);
+                return user;
+            });
+        }
+        try {
+            return runConcurrently(SETUP_THREADS, tasks);
+        } catch (Exception ex) {
+            deleteUsers(new ArrayList<>(created));
+            throw ex;
+        }
+    }
+
+    /** Deletes the users in parallel. Failures are logged rather than thrown, so cleanup deletes as much as it can. */
+    public static void deleteUsers(List<TestUser> users) throws Exception {
+        if (users == null) {
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (TestUser user : users) {
+            tasks.add(() -> {
+                try {
+                    user.signOutAndDeleteUser();
+                } catch (Exception ex) {
+                    LOG.error("Error deleting user=" + user.getEmail() + ": " + ex.getMessage(), ex);
+                }
+                return null;
+            });
+        }
+        runConcurrently(SETUP_THREADS, tasks);
+    }
+}
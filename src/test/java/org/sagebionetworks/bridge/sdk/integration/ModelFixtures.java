@@ -0,0 +1,99 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.Base64;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+
+/**
+ * Server-shaped JSON for the models the load harness reads most, at a chosen size. Fixtures are built as JSON (the
+ * same fields and "type" discriminators the server sends) rather than through model setters, so they exercise
+ * exactly what the client deserializes. Output is deterministic for a given size.
+ */
+public class ModelFixtures {
+
+    private static final DateTime START = DateTime.parse("2016-10-03T09:00:00.000Z").withZone(DateTimeZone.UTC);
+    private static final LocalDate START_DATE = LocalDate.parse("2016-10-03");
+    private static final byte[] PNG_SIGNATURE = { (byte)0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+    public static String scheduledActivityListJson(int count) {
+        StringBuilder builder = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(scheduledActivityJson(i));
+        }
+        return builder.append("],\"total\":").append(count).append(",\"type\":\"ResourceList\"}").toString();
+    }
+
+    public static String scheduledActivityJson(int i) {
+        DateTime scheduledOn = START.plusHours(i * 6);
+        return "{\"guid\":\"" + uuid(i) + ":" + scheduledOn.toLocalDateTime() + "\","
+                + "\"schedulePlanGuid\":\"" + uuid(i % 3) + "\","
+                + "\"activity\":{\"label\":\"Activity " + i + "\",\"labelDetail\":\"Takes about 5 minutes\","
+                + "\"guid\":\"" + uuid(i % 7) + "\","
+                + "\"task\":{\"identifier\":\"task:" + (char)('A' + i % 26) + "\",\"type\":\"TaskReference\"},"
+                + "\"activityType\":\"task\",\"type\":\"Activity\"},"
+                + "\"status\":\"" + (i % 4 == 0 ? "available" : "scheduled") + "\","
+                + "\"scheduledOn\":\"" + scheduledOn + "\","
+                + "\"expiresOn\":\"" + scheduledOn.plusDays(1) + "\","
+                + "\"persistent\":false,\"type\":\"ScheduledActivity\"}";
+    }
+
+    public static String reportDataListJson(int count) {
+        StringBuilder builder = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(reportDataJson(i));
+        }
+        return builder.append("],\"startDate\":\"").append(START_DATE).append("\",\"endDate\":\"")
+                .append(START_DATE.plusDays(Math.max(0, count - 1))).append("\",\"type\":\"DateRangeResourceList\"}")
+                .toString();
+    }
+
+    public static String reportDataJson(int i) {
+        return "{\"date\":\"" + START_DATE.plusDays(i) + "\","
+                + "\"data\":{\"steps\":" + (4000 + i * 37 % 6000) + ",\"heartRate\":" + (60 + i % 40) + ","
+                + "\"label\":\"Day " + i + "\",\"completed\":" + (i % 2 == 0) + "},"
+                + "\"type\":\"ReportData\"}";
+    }
+
+    public static String uploadSessionJson(int i) {
+        return "{\"id\":\"" + uuid(i) + "\","
+                + "\"url\":\"https://org-sagebridge-upload.s3.amazonaws.com/" + uuid(i)
+                + "?X-Amz-Algorithm=AWS4-HMAC-SHA256&X-Amz-Date=20161003T090000Z&X-Amz-Expires=86400\","
+                + "\"expires\":\"" + START.plusDays(1) + "\",\"type\":\"UploadSession\"}";
+    }
+
+    public static String uploadValidationStatusJson(int i) {
+        return "{\"id\":\"" + uuid(i) + "\",\"status\":\"" + (i % 5 == 0 ? "validation_failed" : "succeeded")
+                + "\",\"messageList\":[" + (i % 5 == 0 ? "\"Missing required field\"" : "") + "],"
+                + "\"type\":\"UploadValidationStatus\"}";
+    }
+
+    /** A consent signature whose image is imageKb kilobytes before base64 encoding. */
+    public static String consentSignatureJson(int imageKb) {
+        return "{\"name\":\"Participant " + imageKb + "\",\"birthdate\":\"1985-12-31\","
+                + "\"imageData\":\"" + imageData(imageKb) + "\","
+                + "\"imageMimeType\":\"image/png\",\"scope\":\"sponsors_and_partners\"}";
+    }
+
+    // Base64 of a PNG-signed image of imageKb kilobytes. The rest of the bytes are seeded noise, which doesn't
+    // compress, like a real signature image.
+    private static String imageData(int imageKb) {
+        byte[] image = new byte[Math.max(PNG_SIGNATURE.length, imageKb * 1024)];
+        new Random(imageKb).nextBytes(image);
+        System.arraycopy(PNG_SIGNATURE, 0, image, 0, PNG_SIGNATURE.length);
+        return Base64.getEncoder().encodeToString(image);
+    }
+
+    // A stable, UUID-shaped id for fixture i.
+    private static String uuid(int i) {
+        return String.format("%08x-0000-4000-8000-%012x", i, (long)i * 2654435761L);
+    }
+}
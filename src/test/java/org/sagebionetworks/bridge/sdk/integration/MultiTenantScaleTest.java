@@ -0,0 +1,191 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.rest.model.StudyList;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Grows the number of studies (tenants) on the server in tiers and measures how study listing and per-study
+ * operations behave as the count grows. Studies are created in parallel from {@link Tests#getStudy}; the server gives
+ * each new study its default subpopulation and consent. At each tier the scenario times getStudies (summary and full)
+ * and, for a sample of the studies, getStudy, updateStudy and a worker's cross-study read. At the end, all the studies
+ * are deleted in parallel and the listing is checked for leftovers. Results are appended to
+ * target/load-results/multi-tenant.csv.
+ *
+ * <p>Populating each study with its own schedule plans would need a developer account in that study, which the
+ * harness can't create (accounts are created in the test study), so per-study operations are the ones an admin or
+ * worker can make across studies.</p>
+ */
+@Category(LoadTest.class)
+public class MultiTenantScaleTest {
+    private static final Logger LOG = LoggerFactory.getLogger(MultiTenantScaleTest.class);
+
+    // Cumulative: with the defaults, 10 studies are created, then 40 more, then 150 more.
+    private static final List<Integer> STUDY_COUNTS = LoadTestHelper.getIntListProperty("load.studyCounts",
+            "10,50,200");
+    private static final int THREADS = LoadTestHelper.getIntProperty("load.threads", 16);
+    private static final int SAMPLES = LoadTestHelper.getIntProperty("load.samples", 20);
+
+    private static TestUser admin;
+    private static TestUser worker;
+    private static StudiesApi studiesApi;
+    private static ForWorkersApi workersApi;
+
+    private final List<String> studyIds = Collections.synchronizedList(new ArrayList<>());
+    private String runId;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        worker = TestUserHelper.createAndSignInUser(MultiTenantScaleTest.class, false, Role.WORKER);
+        studiesApi = admin.getClient(StudiesApi.class);
+        workersApi = worker.getClient(ForWorkersApi.class);
+    }
+
+    @Before
+    public void before() {
+        runId = RandomStringUtils.randomAlphabetic(4).toLowerCase();
+    }
+
+    @After
+    public void after() throws Exception {
+        // Anything the scenario didn't get to delete.
+        if (!studyIds.isEmpty()) {
+            deleteStudies(new LatencyRecorder("deleteStudy, cleanup"));
+        }
+    }
+
+    @AfterClass
+    public static void deleteWorker() throws Exception {
+        if (worker != null) {
+            worker.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void operationsAsTenantCountGrows() throws Exception {
+        Random random = new Random(STUDY_COUNTS.hashCode());
+        List<String> rows = new ArrayList<>();
+        for (int studyCount : STUDY_COUNTS) {
+            LatencyRecorder create = new LatencyRecorder("createStudy, up to " + studyCount + " studies");
+            createStudies(create, studyCount);
+            create.log();
+
+            LatencyRecorder listSummary = new LatencyRecorder("getStudies(summary), " + studyCount + " studies");
+            LatencyRecorder listFull = new LatencyRecorder("getStudies, " + studyCount + " studies");
+            LatencyRecorder get = new LatencyRecorder("getStudy, " + studyCount + " studies");
+            LatencyRecorder update = new LatencyRecorder("updateStudy, " + studyCount + " studies");
+            LatencyRecorder workerRead = new LatencyRecorder("getAllPublishedSurveysInStudy, " + studyCount
+                    + " studies");
+            int listed = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                StudyList summaries = listSummary.time(() -> studiesApi.getStudies(true).execute().body());
+                listFull.time(() -> studiesApi.getStudies(false).execute().body());
+                listed = summaries.getItems().size();
+
+                String studyId = studyIds.get(random.nextInt(studyIds.size()));
+                Study study = get.time(() -> studiesApi.getStudy(studyId).execute().body());
+                study.setSponsorName("Sponsor " + i);
+                update.time(() -> studiesApi.updateStudy(studyId, study).execute().body());
+                workerRead.time(() -> workersApi.getAllPublishedSurveysInStudy(studyId).execute().body());
+            }
+            for (LatencyRecorder recorder : new LatencyRecorder[] { listSummary, listFull, get, update, workerRead }) {
+                recorder.log();
+            }
+            assertTrue("Listing should include the scenario's studies", listed >= studyIds.size());
+
+            rows.add(studyCount + "," + listed + "," + create.getPercentile(0.5) + "," + create.getPercentile(0.99)
+                    + "," + listSummary.getPercentile(0.5) + "," + listSummary.getPercentile(0.99) + ","
+                    + listFull.getPercentile(0.5) + "," + listFull.getPercentile(0.99) + ","
+                    + get.getPercentile(0.5) + "," + get.getPercentile(0.99) + "," + update.getPercentile(0.5)
+                    + "," + update.getPercentile(0.99) + "," + workerRead.getPercentile(0.5) + ","
+                    + workerRead.getPercentile(0.99));
+        }
+        LoadTestHelper.appendResults("multi-tenant", "scenarioStudies,listedStudies,createP50,createP99,"
+                + "listSummaryP50,listSummaryP99,listFullP50,listFullP99,getP50,getP99,updateP50,updateP99,"
+                + "workerReadP50,workerReadP99", rows);
+
+        List<String> created = new ArrayList<>(studyIds);
+        LatencyRecorder delete = new LatencyRecorder("deleteStudy, " + created.size() + " studies");
+        deleteStudies(delete);
+        delete.log();
+        assertEquals(0, delete.getErrorCount());
+
+        // Nothing the scenario created should still be listed, or readable.
+        Set<String> leftovers = new HashSet<>();
+        for (Study study : studiesApi.getStudies(true).execute().body().getItems()) {
+            if (study.getIdentifier().startsWith(studyIdPrefix())) {
+                leftovers.add(study.getIdentifier());
+            }
+        }
+        assertTrue("Studies left behind: " + leftovers, leftovers.isEmpty());
+        try {
+            studiesApi.getStudy(created.get(0)).execute();
+            throw new AssertionError("Deleted study " + created.get(0) + " can still be read");
+        } catch (EntityNotFoundException ex) {
+            // expected exception
+        }
+    }
+
+    private String studyIdPrefix() {
+        return "sdk-multitenant-" + runId + "-";
+    }
+
+    // Creates studies until the scenario has the given number.
+    private void createStudies(LatencyRecorder recorder, int total) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = studyIds.size(); i < total; i++) {
+            String studyId = studyIdPrefix() + i;
+            tasks.add(() -> {
+                recorder.time(() -> studiesApi.createStudy(Tests.getStudy(studyId, null)).execute().body());
+                studyIds.add(studyId);
+                return null;
+            });
+        }
+        LoadTestHelper.runConcurrently(THREADS, tasks);
+    }
+
+    // Physically deletes every study in studyIds, in parallel. Failures are logged and the study is kept in the list.
+    private void deleteStudies(LatencyRecorder recorder) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (String studyId : new ArrayList<>(studyIds)) {
+            tasks.add(() -> {
+                try {
+                    recorder.time(() -> studiesApi.deleteStudy(studyId, true).execute());
+                    studyIds.remove(studyId);
+                } catch (EntityNotFoundException ex) {
+                    studyIds.remove(studyId);
+                } catch (Exception ex) {
+                    LOG.error("Error deleting study=" + studyId + ": " + ex.getMessage(), ex);
+                }
+                return null;
+            });
+        }
+        LoadTestHelper.runConcurrently(THREADS, tasks);
+    }
+}
@@ -0,0 +1,272 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+import org.joda.time.LocalDate;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.ClientManager;
+import org.sagebionetworks.bridge.rest.Config;
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.AuthenticationApi;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.exceptions.ConsentRequiredException;
+import org.sagebionetworks.bridge.rest.model.AccountStatus;
+import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
+import org.sagebionetworks.bridge.rest.model.ClientInfo;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SharingScope;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Pushes bursts of new participants through the whole onboarding funnel at once, the way a launch day does: sign up,
+ * verify, sign in (and get a 412 for missing consent), consent, sign in again, and load the first schedule. Each
+ * participant runs the funnel on its own thread, so a burst of N is N participants in flight together. Bursts grow
+ * (-Dload.burstSizes) to find where the funnel saturates; for each burst the scenario reports per-stage latency,
+ * per-stage drop-outs, and completions per second. Results are appended to target/load-results/onboarding-funnel.csv.
+ *
+ * <p>The verification email can't be followed from a test, so the verify stage is what a researcher can do instead:
+ * find the new account by email and enable it, as in ParticipantsTest.</p>
+ */
+@Category(LoadTest.class)
+public class OnboardingFunnelTest {
+    private static final Logger LOG = LoggerFactory.getLogger(OnboardingFunnelTest.class);
+
+    private static final List<Integer> BURST_SIZES = LoadTestHelper.getIntListProperty("load.burstSizes",
+            "10,25,50");
+    private static final String PASSWORD = "P@ssword1";
+    // Finding a just-created account by email can lag the sign-up slightly.
+    private static final int SEARCH_RETRIES = 5;
+    private static final long SEARCH_RETRY_MILLIS = 200;
+
+    private static final String[] STAGES = { "signUp", "verify", "signIn", "consent", "reSignIn", "schedule" };
+
+    private static final ClientInfo CLIENT_INFO = new ClientInfo();
+    static {
+        CLIENT_INFO.setAppName("Onboarding Funnel");
+        CLIENT_INFO.setAppVersion(1);
+    }
+
+    private static TestUser admin;
+    private static TestUser researcher;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        researcher = TestUserHelper.createAndSignInUser(OnboardingFunnelTest.class, false, Role.RESEARCHER);
+    }
+
+    @AfterClass
+    public static void deleteResearcher() throws Exception {
+        if (researcher != null) {
+            researcher.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void onboardingBursts() throws Exception {
+        List<String> rows = new ArrayList<>();
+        double previousRate = 0.0;
+        Integer saturatedAt = null;
+        for (int burstSize : BURST_SIZES) {
+            Burst burst = new Burst(burstSize);
+            burst.run();
+            burst.log();
+            rows.add(burst.resultRow());
+
+            // Saturated once a bigger burst no longer raises completions/s by at least 10%.
+            if (saturatedAt == null && previousRate > 0.0 && burst.completionsPerSecond < previousRate * 1.1) {
+                saturatedAt = burstSize;
+            }
+            previousRate = burst.completionsPerSecond;
+            assertTrue("No participant completed onboarding in a burst of " + burstSize, burst.completed() > 0);
+        }
+        LOG.info("Onboarding funnel saturated at: " + (saturatedAt == null ? "not reached (up to "
+                + BURST_SIZES.get(BURST_SIZES.size() - 1) + ")" : "burst of " + saturatedAt));
+
+        StringBuilder header = new StringBuilder("burstSize,completed,elapsedMs,completionsPerSecond");
+        for (String stage : STAGES) {
+            header.append(",").append(stage).append("P50,").append(stage).append("P99,").append(stage)
+                    .append("Errors");
+        }
+        LoadTestHelper.appendResults("onboarding-funnel", header.toString(), rows);
+    }
+
+    // One burst of participants going through the funnel together.
+    private static final class Burst {
+        private final int size;
+        private final LatencyRecorder[] stages = new LatencyRecorder[STAGES.length];
+        private final AtomicInteger[] reached = new AtomicInteger[STAGES.length];
+        // Every email that was signed up, and the account ID of those the verify stage found.
+        private final List<String> emails = Collections.synchronizedList(new ArrayList<>());
+        private final Map<String, String> userIdsByEmail = new ConcurrentHashMap<>();
+        private long elapsedMillis;
+        private double completionsPerSecond;
+
+        Burst(int size) {
+            this.size = size;
+            for (int i = 0; i < STAGES.length; i++) {
+                stages[i] = new LatencyRecorder(STAGES[i] + ", burst of " + size);
+                reached[i] = new AtomicInteger();
+            }
+        }
+
+        void run() throws Exception {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                tasks.add(() -> {
+                    try {
+                        onboard();
+                    } catch (Exception ex) {
+                        // A drop-out; the stage's recorder has the error.
+                        LOG.debug("Participant dropped out of the funnel: " + ex.getMessage());
+                    }
+                    return null;
+                });
+            }
+            long start = System.currentTimeMillis();
+            try {
+                LoadTestHelper.runConcurrently(size, tasks);
+            } finally {
+                elapsedMillis = System.currentTimeMillis() - start;
+                completionsPerSecond = LoadTestHelper.ratePerSecond(completed(), elapsedMillis);
+                deleteAccounts();
+            }
+        }
+
+        int completed() {
+            return reached[STAGES.length - 1].get();
+        }
+
+        private void onboard() throws Exception {
+            String email = Tests.makeEmail(OnboardingFunnelTest.class);
+            SignIn signIn = new SignIn().study(Tests.TEST_KEY).email(email).password(PASSWORD);
+            ClientManager manager = new ClientManager.Builder().withConfig(new Config()).withSignIn(signIn)
+                    .withClientInfo(CLIENT_INFO).withAcceptLanguage(Lists.newArrayList("en")).build();
+            TestUser user = new TestUser(signIn, manager);
+
+            // Recorded before the call, so the account is cleaned up even if a later stage (or the sign-up's own
+            // response) fails.
+            emails.add(email);
+            stage(0, () -> manager.getClient(AuthenticationApi.class).signUp(new SignUp().study(Tests.TEST_KEY)
+                    .email(email).password(PASSWORD)).execute());
+            stage(1, () -> enable(email));
+            stage(2, () -> {
+                try {
+                    user.signInAgain();
+                } catch (ConsentRequiredException ex) {
+                    return ex.getSession();
+                }
+                throw new IllegalStateException("Sign in before consent should require consent");
+            });
+            String subpopulationGuid = user.getDefaultSubpopulation();
+            ConsentSignature signature = new ConsentSignature().name("Funnel Participant")
+                    .birthdate(new LocalDate(1970, 1, 1)).scope(SharingScope.NO_SHARING);
+            stage(3, () -> user.getClient(ForConsentedUsersApi.class).createConsentSignature(subpopulationGuid,
+                    signature).execute());
+            UserSessionInfo session = stage(4, user::signInAgain);
+            if (!RestUtils.isUserConsented(session)) {
+                throw new IllegalStateException("Participant " + session.getId() + " is not consented");
+            }
+            stage(5, () -> user.getClient(ForConsentedUsersApi.class).getScheduledActivities("+00:00", 4, 0)
+                    .execute().body());
+        }
+
+        // Researcher-side stand-in for following the verification link. Returns the new account's ID.
+        private String enable(String email) throws Exception {
+            String userId = findUserId(email);
+            if (userId == null) {
+                throw new IllegalStateException("New account " + email + " not found");
+            }
+            userIdsByEmail.put(email, userId);
+            ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+            StudyParticipant participant = participantsApi.getParticipant(userId).execute().body();
+            participant.setStatus(AccountStatus.ENABLED);
+            participantsApi.updateParticipant(userId, participant).execute();
+            return userId;
+        }
+
+        // The ID of the account with this email, or null if there is none after the retries.
+        private String findUserId(String email) throws Exception {
+            ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+            for (int i = 0; ; i++) {
+                AccountSummaryList summaries = participantsApi.getParticipants(0, 5, email, null, null).execute()
+                        .body();
+                if (!summaries.getItems().isEmpty()) {
+                    return summaries.getItems().get(0).getId();
+                }
+                if (i >= SEARCH_RETRIES) {
+                    return null;
+                }
+                Thread.sleep(SEARCH_RETRY_MILLIS);
+            }
+        }
+
+        private <T> T stage(int index, Callable<T> callable) throws Exception {
+            T result = stages[index].time(callable);
+            reached[index].incrementAndGet();
+            return result;
+        }
+
+        private void deleteAccounts() throws Exception {
+            ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (String email : new ArrayList<>(emails)) {
+                tasks.add(() -> {
+                    // Participants who dropped out before the verify stage found them are looked up by email.
+                    String userId = userIdsByEmail.get(email);
+                    if (userId == null) {
+                        userId = findUserId(email);
+                    }
+                    if (userId != null) {
+                        adminsApi.deleteUser(userId).execute();
+                    }
+                    return null;
+                });
+            }
+            LoadTestHelper.runConcurrently(Math.min(size, 10), tasks);
+        }
+
+        void log() {
+            StringBuilder funnel = new StringBuilder();
+            for (int i = 0; i < STAGES.length; i++) {
+                stages[i].log();
+                funnel.append(i == 0 ? "" : " -> ").append(STAGES[i]).append(" ").append(reached[i].get());
+            }
+            LOG.info(String.format("Burst of %d: %s; %d completed in %d ms (%.1f completions/s)", size, funnel,
+                    completed(), elapsedMillis, completionsPerSecond));
+        }
+
+        String resultRow() {
+            StringBuilder row = new StringBuilder();
+            row.append(size).append(",").append(completed()).append(",").append(elapsedMillis).append(",")
+                    .append(String.format("%.1f", completionsPerSecond));
+            for (LatencyRecorder stage : stages) {
+                row.append(",").append(stage.getPercentile(0.5)).append(",").append(stage.getPercentile(0.99))
+                        .append(",").append(stage.getErrorCount());
+            }
+            return row.toString();
+        }
+    }
+}
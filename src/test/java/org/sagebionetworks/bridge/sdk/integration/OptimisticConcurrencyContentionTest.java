@@ -0,0 +1,232 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.rest.model.UploadFieldDefinition;
+import org.sagebionetworks.bridge.rest.model.UploadFieldType;
+import org.sagebionetworks.bridge.rest.model.UploadSchema;
+import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
+import org.sagebionetworks.bridge.sdk.integration.ContentionHarness.Result;
+import org.sagebionetworks.bridge.sdk.integration.ContentionHarness.RetryPolicy;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Runs {@link ContentionHarness} against an upload schema and a study with each retry policy, so client retry
+ * strategies for contended configuration objects can be compared. Each schema writer adds optional fields; each study
+ * writer keeps one task identifier of its own up to date. Results are appended to
+ * target/load-results/optimistic-contention.csv.
+ */
+@Category(LoadTest.class)
+public class OptimisticConcurrencyContentionTest {
+
+    private static final int WRITERS = LoadTestHelper.getIntProperty("load.writers", 8);
+    private static final int UPDATES_PER_WRITER = LoadTestHelper.getIntProperty("load.updatesPerWriter", 10);
+    private static final int MAX_ATTEMPTS = LoadTestHelper.getIntProperty("load.maxAttempts", 10);
+    private static final long INITIAL_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+    private static final String RESULTS_HEADER = "object,policy,writers,updatesPerWriter,successes,attempts,"
+            + "conflictRate,rejected,gaveUp,lostUpdates,updatesPerSecond,p50,p99,max";
+
+    private static TestUser admin;
+    private static TestUser developer;
+
+    private ResourceCleaner cleaner;
+    private String studyId;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        developer = TestUserHelper.createAndSignInUser(OptimisticConcurrencyContentionTest.class, false,
+                Role.DEVELOPER);
+    }
+
+    @Before
+    public void before() {
+        cleaner = new ResourceCleaner(admin);
+    }
+
+    @After
+    public void after() throws Exception {
+        cleaner.cleanup();
+        if (studyId != null) {
+            admin.getClient(StudiesApi.class).deleteStudy(studyId, true).execute();
+            studyId = null;
+        }
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void uploadSchemaContention() throws Exception {
+        UploadSchemasApi schemasApi = developer.getClient(UploadSchemasApi.class);
+        List<String> rows = new ArrayList<>();
+        for (RetryPolicy policy : policies()) {
+            // A new schema for each policy, so field counts (and payload sizes) are comparable between runs.
+            String schemaId = "contention-" + policy.getName() + "-" + RandomStringUtils.randomAlphabetic(4);
+            cleaner.registerUploadSchema(schemaId);
+            UploadSchema schema = new UploadSchema();
+            schema.setName("Contention " + policy.getName());
+            schema.setSchemaId(schemaId);
+            schema.setSchemaType(UploadSchemaType.IOS_DATA);
+            schema.setFieldDefinitions(Lists.newArrayList(field("field", true)));
+            long revision = schemasApi.createUploadSchema(schema).execute().body().getRevision();
+
+            Result result = new ContentionHarness<>(new UploadSchemaTarget(schemasApi, schemaId, revision))
+                    .run(policy, WRITERS, UPDATES_PER_WRITER);
+            rows.add(row("uploadSchema", result));
+        }
+        LoadTestHelper.appendResults("optimistic-contention", RESULTS_HEADER, rows);
+        assertEquals(policies().size(), rows.size());
+    }
+
+    @Test
+    public void studyContention() throws Exception {
+        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        studyId = Tests.randomIdentifier(OptimisticConcurrencyContentionTest.class);
+        studiesApi.createStudy(Tests.getStudy(studyId, null)).execute();
+
+        List<String> rows = new ArrayList<>();
+        for (RetryPolicy policy : policies()) {
+            Result result = new ContentionHarness<>(new StudyTarget(studiesApi, studyId))
+                    .run(policy, WRITERS, UPDATES_PER_WRITER);
+            rows.add(row("study", result));
+        }
+        LoadTestHelper.appendResults("optimistic-contention", RESULTS_HEADER, rows);
+        assertEquals(policies().size(), rows.size());
+    }
+
+    private static List<RetryPolicy> policies() {
+        return Lists.newArrayList(RetryPolicy.immediate(MAX_ATTEMPTS),
+                RetryPolicy.backoff(MAX_ATTEMPTS, INITIAL_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS),
+                RetryPolicy.readMergeWrite(MAX_ATTEMPTS));
+    }
+
+    private static String row(String object, Result result) {
+        LatencyRecorder latency = result.getLatency();
+        return String.format("%s,%s,%d,%d,%d,%d,%.3f,%d,%d,%d,%.2f,%d,%d,%d", object, result.getPolicyName(),
+                result.getWriters(), UPDATES_PER_WRITER, result.getSuccesses(), result.getAttempts(),
+                result.getConflictRate(), result.getRejected(), result.getGaveUp(), result.getLostUpdates(),
+                result.getSuccessesPerSecond(), latency.getPercentile(0.5), latency.getPercentile(0.99),
+                latency.getMax());
+    }
+
+    private static UploadFieldDefinition field(String name, boolean required) {
+        UploadFieldDefinition field = new UploadFieldDefinition();
+        field.setName(name);
+        field.setType(UploadFieldType.STRING);
+        field.setRequired(required);
+        return field;
+    }
+
+    // Updates one schema revision in place (the v4 update API), adding an optional field per change.
+    private static class UploadSchemaTarget implements ContentionHarness.Target<UploadSchema> {
+        private final UploadSchemasApi schemasApi;
+        private final String schemaId;
+        private final long revision;
+
+        UploadSchemaTarget(UploadSchemasApi schemasApi, String schemaId, long revision) {
+            this.schemasApi = schemasApi;
+            this.schemaId = schemaId;
+            this.revision = revision;
+        }
+
+        @Override
+        public UploadSchema read() throws Exception {
+            return schemasApi.getUploadSchema(schemaId, revision).execute().body();
+        }
+
+        @Override
+        public void write(UploadSchema value) throws Exception {
+            schemasApi.updateUploadSchema(schemaId, revision, value).execute();
+        }
+
+        @Override
+        public void apply(UploadSchema value, String token) {
+            List<UploadFieldDefinition> fields = new ArrayList<>(value.getFieldDefinitions());
+            fields.add(field(token, false));
+            value.setFieldDefinitions(fields);
+        }
+
+        @Override
+        public boolean isApplied(UploadSchema value, String token) {
+            for (UploadFieldDefinition field : value.getFieldDefinitions()) {
+                if (token.equals(field.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void copyVersion(UploadSchema from, UploadSchema to) {
+            to.setVersion(from.getVersion());
+        }
+    }
+
+    // Each writer keeps a single task identifier of its own in the study, replacing it on every change.
+    private static class StudyTarget implements ContentionHarness.Target<Study> {
+        private final StudiesApi studiesApi;
+        private final String studyId;
+
+        StudyTarget(StudiesApi studiesApi, String studyId) {
+            this.studiesApi = studiesApi;
+            this.studyId = studyId;
+        }
+
+        @Override
+        public Study read() throws Exception {
+            return studiesApi.getStudy(studyId).execute().body();
+        }
+
+        @Override
+        public void write(Study value) throws Exception {
+            studiesApi.updateStudy(studyId, value).execute();
+        }
+
+        @Override
+        public void apply(Study value, String token) {
+            // Tokens are <writer>_<update>, so this drops the writer's previous identifier.
+            String writerPrefix = token.substring(0, token.lastIndexOf('_') + 1);
+            List<String> taskIdentifiers = new ArrayList<>(value.getTaskIdentifiers());
+            for (Iterator<String> i = taskIdentifiers.iterator(); i.hasNext();) {
+                if (i.next().startsWith(writerPrefix)) {
+                    i.remove();
+                }
+            }
+            taskIdentifiers.add(token);
+            value.setTaskIdentifiers(taskIdentifiers);
+        }
+
+        @Override
+        public boolean isApplied(Study value, String token) {
+            return value.getTaskIdentifiers().contains(token);
+        }
+
+        @Override
+        public void copyVersion(Study from, Study to) {
+            to.setVersion(from.getVersion());
+        }
+    }
+}
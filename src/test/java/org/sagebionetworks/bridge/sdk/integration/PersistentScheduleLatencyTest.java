@@ -0,0 +1,134 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesApi;
+import org.sagebionetworks.bridge.rest.model.GuidVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivity;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityList;
+import org.sagebionetworks.bridge.rest.model.SchedulePlan;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * The persistent schedule plan fires on the "task:CCC:finished" event, so finishing the activity should cause the
+ * next one to be generated. This measures how long that cycle takes to close, from the finish update until the
+ * regenerated activity is visible to the participant, with many participants doing it at once.
+ */
+@Category(LoadTest.class)
+public class PersistentScheduleLatencyTest {
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentScheduleLatencyTest.class);
+
+    private static final int USER_COUNT = LoadTestHelper.getIntProperty("load.users", 10);
+    private static final int CYCLES_PER_USER = LoadTestHelper.getIntProperty("load.cycles", 5);
+
+    // A regenerated activity that takes longer than this to show up is treated as lost.
+    private static final long REAPPEAR_TIMEOUT_MILLIS = 30000;
+    private static final long POLL_INTERVAL_MILLIS = 250;
+
+    private TestUser developer;
+    private List<TestUser> users;
+    private GuidVersionHolder planKeys;
+    private String taskId;
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(PersistentScheduleLatencyTest.class, true, Role.DEVELOPER);
+
+        SchedulePlan plan = Tests.getPersistentSchedulePlan();
+        taskId = Tests.getActivityFromSimpleStrategy(plan).getTask().getIdentifier();
+        planKeys = developer.getClient(SchedulesApi.class).createSchedulePlan(plan).execute().body();
+
+        users = LoadTestHelper.createUsers(PersistentScheduleLatencyTest.class, USER_COUNT, true);
+    }
+
+    @After
+    public void after() throws Exception {
+        try {
+            if (planKeys != null) {
+                developer.getClient(SchedulesApi.class).deleteSchedulePlan(planKeys.getGuid()).execute();
+            }
+        } finally {
+            LoadTestHelper.deleteUsers(users);
+            if (developer != null) {
+                developer.signOutAndDeleteUser();
+            }
+        }
+    }
+
+    @Test
+    public void finishToReappearLatency() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder("persistent activity finish-to-reappear");
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (TestUser user : users) {
+            tasks.add(() -> {
+                runFinishCycles(user, recorder);
+                return null;
+            });
+        }
+        long start = System.currentTimeMillis();
+        LoadTestHelper.runConcurrently(USER_COUNT, tasks);
+        long elapsed = System.currentTimeMillis() - start;
+
+        recorder.log();
+        LOG.info(String.format("%d users completed %d cycles in %dms (%.2f cycles/sec)", USER_COUNT,
+                recorder.getCount(), elapsed, LoadTestHelper.ratePerSecond(recorder.getCount(), elapsed)));
+        assertEquals(USER_COUNT * CYCLES_PER_USER, recorder.getCount());
+    }
+
+    private void runFinishCycles(TestUser user, LatencyRecorder recorder) throws Exception {
+        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+
+        ScheduledActivity activity = pollForPersistentActivity(usersApi, null);
+        for (int i = 0; i < CYCLES_PER_USER; i++) {
+            DateTime now = DateTime.now();
+            activity.setStartedOn(now);
+            activity.setFinishedOn(now);
+
+            long start = System.nanoTime();
+            usersApi.updateScheduledActivities(Lists.newArrayList(activity)).execute();
+            ScheduledActivity next = pollForPersistentActivity(usersApi, activity.getGuid());
+            recorder.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            activity = next;
+        }
+    }
+
+    // Polls until the user has an instance of the persistent activity other than the one they just finished.
+    private ScheduledActivity pollForPersistentActivity(ForConsentedUsersApi usersApi, String finishedGuid)
+            throws Exception {
+        long deadline = System.currentTimeMillis() + REAPPEAR_TIMEOUT_MILLIS;
+        while (true) {
+            ScheduledActivityList activities = usersApi.getScheduledActivities("+00:00", 1, null).execute().body();
+            for (ScheduledActivity activity : activities.getItems()) {
+                if (activity.getActivity().getTask() != null
+                        && taskId.equals(activity.getActivity().getTask().getIdentifier())
+                        && !activity.getGuid().equals(finishedGuid)) {
+                    return activity;
+                }
+            }
+            if (System.currentTimeMillis() > deadline) {
+                fail("Persistent activity did not reappear within " + REAPPEAR_TIMEOUT_MILLIS + "ms");
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+}
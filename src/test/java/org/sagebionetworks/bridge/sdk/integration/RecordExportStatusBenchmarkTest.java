@@ -0,0 +1,184 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.Lists;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.model.HealthDataRecord;
+import org.sagebionetworks.bridge.rest.model.RecordExportStatusRequest;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SynapseExporterStatus;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Benchmarks the export-status transitions the exporter makes through the worker API. This is not an export
+ * benchmark: nothing is written to Synapse. N copies of the legacy-non-survey test upload are uploaded and validated,
+ * their records are reset to NOT_EXPORTED in batches, and then the batches are marked SUCCEEDED concurrently. Reports
+ * the latency of each updateRecordExportStatuses batch and the records transitioned per second. Results are appended
+ * to target/load-results/record-export-status.csv.
+ */
+@Category(LoadTest.class)
+public class RecordExportStatusBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(RecordExportStatusBenchmarkTest.class);
+
+    private static final int RECORDS = LoadTestHelper.getIntProperty("load.records", 50);
+    private static final int BATCH_SIZE = LoadTestHelper.getIntProperty("load.batchSize", 10);
+    private static final int THREADS = LoadTestHelper.getIntProperty("load.threads", 4);
+
+    // Validation of a warm server takes about 2 seconds per upload; give the whole batch a minute past that.
+    private static final long VALIDATION_TIMEOUT_MILLIS = 60000;
+    private static final long VALIDATION_POLL_MILLIS = 2000;
+
+    private static TestUser worker;
+    private static TestUser developer;
+    private static TestUser user;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        worker = TestUserHelper.createAndSignInUser(RecordExportStatusBenchmarkTest.class, false, Role.WORKER);
+        developer = TestUserHelper.createAndSignInUser(RecordExportStatusBenchmarkTest.class, false, Role.DEVELOPER);
+        user = TestUserHelper.createAndSignInUser(RecordExportStatusBenchmarkTest.class, true);
+        UploadTest.createSchemasIfMissing(developer.getClient(UploadSchemasApi.class));
+    }
+
+    @AfterClass
+    public static void deleteWorker() throws Exception {
+        if (worker != null) {
+            worker.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteUser() throws Exception {
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void transitionValidatedRecords() throws Exception {
+        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForWorkersApi workersApi = worker.getClient(ForWorkersApi.class);
+
+        List<HealthDataRecord> records = uploadAndValidate(usersApi);
+        assertEquals(RECORDS, records.size());
+        List<List<HealthDataRecord>> batches = Lists.partition(records, BATCH_SIZE);
+
+        // Start from the state the exporter finds records in.
+        LatencyRecorder reset = new LatencyRecorder("updateRecordExportStatuses NOT_EXPORTED, batch of " + BATCH_SIZE);
+        for (List<HealthDataRecord> batch : batches) {
+            reset.time(() -> workersApi.updateRecordExportStatuses(statusRequest(batch,
+                    SynapseExporterStatus.NOT_EXPORTED)).execute());
+        }
+        reset.log();
+
+        LatencyRecorder mark = new LatencyRecorder("updateRecordExportStatuses SUCCEEDED, batch of " + BATCH_SIZE);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (List<HealthDataRecord> batch : batches) {
+            tasks.add(() -> {
+                mark.time(() -> workersApi.updateRecordExportStatuses(statusRequest(batch,
+                        SynapseExporterStatus.SUCCEEDED)).execute());
+                return null;
+            });
+        }
+        long start = System.currentTimeMillis();
+        LoadTestHelper.runConcurrently(THREADS, tasks);
+        long elapsed = System.currentTimeMillis() - start;
+        double recordsPerSecond = LoadTestHelper.ratePerSecond(RECORDS, elapsed);
+        mark.log();
+        LOG.info(String.format("Marked %d records SUCCEEDED in %d ms (%.1f records/s), %d batches on %d threads",
+                RECORDS, elapsed, recordsPerSecond, batches.size(), THREADS));
+
+        assertEquals(0, mark.getErrorCount());
+        // Spot check that the transitions landed on the server.
+        for (HealthDataRecord record : Arrays.asList(records.get(0), records.get(RECORDS - 1))) {
+            UploadValidationStatus status = usersApi.getUploadStatus(record.getUploadId()).execute().body();
+            assertEquals(SynapseExporterStatus.SUCCEEDED, status.getRecord().getSynapseExporterStatus());
+        }
+
+        LoadTestHelper.appendResults("record-export-status", "records,batchSize,threads,resetP50,resetP99,markP50,"
+                + "markP99,elapsedMs,recordsPerSecond", Collections.singletonList(RECORDS + "," + BATCH_SIZE + ","
+                + THREADS + "," + reset.getPercentile(0.5) + "," + reset.getPercentile(0.99) + ","
+                + mark.getPercentile(0.5) + "," + mark.getPercentile(0.99) + "," + elapsed + ","
+                + String.format("%.1f", recordsPerSecond)));
+    }
+
+    // Uploads the test file RECORDS times and waits for every upload to validate. Returns the records in upload order.
+    private static List<HealthDataRecord> uploadAndValidate(ForConsentedUsersApi usersApi) throws Exception {
+        String envName = user.getClientManager().getConfig().getEnvironment().name().toLowerCase(Locale.ENGLISH);
+        File file = new File("src/test/resources/upload-test/" + envName + "/legacy-non-survey-encrypted");
+
+        LatencyRecorder upload = new LatencyRecorder("upload");
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            tasks.add(() -> upload.time(() -> RestUtils.upload(usersApi, file).getId()));
+        }
+        List<String> uploadIds = LoadTestHelper.runConcurrently(THREADS, tasks);
+        upload.log();
+
+        HealthDataRecord[] records = new HealthDataRecord[uploadIds.size()];
+        int remaining = records.length;
+        long deadline = System.currentTimeMillis() + VALIDATION_TIMEOUT_MILLIS;
+        while (remaining > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(remaining + " of " + records.length + " uploads did not validate in time");
+            }
+            Thread.sleep(VALIDATION_POLL_MILLIS);
+            for (int i = 0; i < records.length; i++) {
+                if (records[i] != null) {
+                    continue;
+                }
+                UploadValidationStatus status = usersApi.getUploadStatus(uploadIds.get(i)).execute().body();
+                if (status.getStatus() == UploadStatus.VALIDATION_FAILED) {
+                    fail("Upload validation failed, UploadId=" + uploadIds.get(i));
+                } else if (status.getStatus() == UploadStatus.SUCCEEDED) {
+                    assertTrue(status.getMessageList().isEmpty());
+                    records[i] = status.getRecord();
+                    remaining--;
+                }
+            }
+        }
+        return Arrays.asList(records);
+    }
+
+    private static RecordExportStatusRequest statusRequest(List<HealthDataRecord> batch,
+            SynapseExporterStatus exporterStatus) {
+        List<String> recordIds = new ArrayList<>();
+        for (HealthDataRecord record : batch) {
+            recordIds.add(record.getId());
+        }
+        RecordExportStatusRequest request = new RecordExportStatusRequest();
+        request.setRecordIds(recordIds);
+        request.setSynapseExporterStatus(exporterStatus);
+        return request;
+    }
+}
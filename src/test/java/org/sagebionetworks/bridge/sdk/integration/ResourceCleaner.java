@@ -0,0 +1,137 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesApi;
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Collects the resources a test creates and deletes them at teardown. Resources are deleted in dependency order
+ * (schedule plans, then surveys, then upload schemas, then subpopulations), and each group is deleted concurrently.
+ * Failed deletes are retried with exponential backoff; a resource that is already gone counts as deleted. Whatever
+ * still can't be deleted is logged and returned, so leaks are visible instead of silently slowing down later list
+ * calls.
+ */
+public class ResourceCleaner {
+    private static final Logger LOG = LoggerFactory.getLogger(ResourceCleaner.class);
+
+    // Deletion phases, in the order they run.
+    private static final int SCHEDULE_PLANS = 0;
+    private static final int SURVEYS = 1;
+    private static final int UPLOAD_SCHEMAS = 2;
+    private static final int SUBPOPULATIONS = 3;
+    private static final int PHASE_COUNT = 4;
+
+    private static final int THREAD_COUNT = 8;
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MILLIS = 250;
+
+    private final SurveysApi surveysApi;
+    private final ForAdminsApi adminApi;
+    private final List<Map<String, Callable<?>>> phases = new ArrayList<>();
+
+    public ResourceCleaner(TestUser admin) {
+        checkNotNull(admin);
+        this.surveysApi = admin.getClient(SurveysApi.class);
+        this.adminApi = admin.getClient(ForAdminsApi.class);
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            phases.add(new LinkedHashMap<>());
+        }
+    }
+
+    /** Registers a schedule plan. Plans are deleted by the developer who owns them, so the API is passed in. */
+    public synchronized void registerSchedulePlan(SchedulesApi schedulesApi, String guid) {
+        register(SCHEDULE_PLANS, "schedulePlan=" + guid, () -> schedulesApi.deleteSchedulePlan(guid).execute());
+    }
+
+    /**
+     * Registers a survey version. The guid and createdOn are copied now, so later changes to a mutable holder don't
+     * change what gets deleted.
+     */
+    public synchronized void registerSurvey(GuidCreatedOnVersionHolder keys) {
+        String guid = keys.getGuid();
+        DateTime createdOn = keys.getCreatedOn();
+        register(SURVEYS, "survey=" + guid + "/" + createdOn, () -> surveysApi.deleteSurvey(guid, createdOn,
+                true).execute());
+    }
+
+    /** Registers all revisions of an upload schema in the test study. */
+    public synchronized void registerUploadSchema(String schemaId) {
+        register(UPLOAD_SCHEMAS, "uploadSchema=" + schemaId, () -> adminApi.deleteAllRevisionsOfUploadSchema(
+                Tests.TEST_KEY, schemaId).execute());
+    }
+
+    /** Registers a subpopulation in the test study. It is physically deleted, along with its consents. */
+    public synchronized void registerSubpopulation(String guid) {
+        register(SUBPOPULATIONS, "subpopulation=" + guid, () -> adminApi.deleteSubpopulation(guid, true).execute());
+    }
+
+    /**
+     * Deletes everything registered so far and clears the registrations.
+     *
+     * @return descriptions of the resources that could not be deleted
+     */
+    public synchronized List<String> cleanup() throws Exception {
+        List<String> leaked = new ArrayList<>();
+        for (Map<String, Callable<?>> phase : phases) {
+            if (phase.isEmpty()) {
+                continue;
+            }
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (Map.Entry<String, Callable<?>> entry : phase.entrySet()) {
+                tasks.add(() -> deleteWithRetry(entry.getKey(), entry.getValue()));
+            }
+            for (String leak : LoadTestHelper.runConcurrently(Math.min(THREAD_COUNT, tasks.size()), tasks)) {
+                if (leak != null) {
+                    leaked.add(leak);
+                }
+            }
+            phase.clear();
+        }
+        if (!leaked.isEmpty()) {
+            LOG.error("Leaked " + leaked.size() + " resource(s) after cleanup: " + leaked);
+        }
+        return leaked;
+    }
+
+    private void register(int phase, String description, Callable<?> delete) {
+        phases.get(phase).put(description, delete);
+    }
+
+    // Returns null if the resource is gone, or its description if it leaked.
+    private static String deleteWithRetry(String description, Callable<?> delete) throws InterruptedException {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                delete.call();
+                return null;
+            } catch (EntityNotFoundException ex) {
+                // Already deleted, possibly by the test itself.
+                return null;
+            } catch (Exception ex) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    LOG.error("Error deleting " + description + ": " + ex.getMessage(), ex);
+                    return description;
+                }
+                LOG.warn("Error deleting " + description + " (attempt " + attempt + "), retrying: "
+                        + ex.getMessage());
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivity;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityList;
+
+/**
+ * Per-user client-side cache of the scheduled activity window. A window that was fetched less than the freshness TTL
+ * ago is served locally. When the server is called, the new response is diffed (by activity guid) against the last
+ * one, so we can measure how often the full window is re-sent without any change. Updating activities through the
+ * cache invalidates it, since the user's own writes change the window.
+ *
+ * <p>The cache keeps each window as JSON and hands every caller its own copy, so a caller that changes activities
+ * (as an app does before updateScheduledActivities) changes neither the cached window nor the baseline the next fetch
+ * is diffed against. Byte counts are estimates: the size of the window serialized with {@link HarnessCodecs#GSON},
+ * not of the response on the wire, which may be compressed.</p>
+ */
+public class ScheduledActivityCache {
+
+    private final ForConsentedUsersApi usersApi;
+    private final long ttlMillis;
+    private final Map<String, CachedWindow> windows = new HashMap<>();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong serverCalls = new AtomicLong();
+    private final AtomicLong bytesFetched = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong unchangedFetches = new AtomicLong();
+    private final AtomicLong unchangedBytes = new AtomicLong();
+
+    public ScheduledActivityCache(ForConsentedUsersApi usersApi, long ttlMillis) {
+        checkNotNull(usersApi);
+        this.usersApi = usersApi;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public synchronized ScheduledActivityList getScheduledActivities(String offset, Integer daysAhead,
+            Integer minimumPerSchedule) throws Exception {
+        calls.incrementAndGet();
+        String key = offset + ":" + daysAhead + ":" + minimumPerSchedule;
+
+        CachedWindow cached = windows.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.fetchedOn < ttlMillis) {
+            bytesSaved.addAndGet(cached.bytes);
+            return cached.copy();
+        }
+
+        ScheduledActivityList list = usersApi.getScheduledActivities(offset, daysAhead, minimumPerSchedule)
+                .execute().body();
+        serverCalls.incrementAndGet();
+
+        CachedWindow window = new CachedWindow(HarnessCodecs.GSON.toJson(list), now);
+        bytesFetched.addAndGet(window.bytes);
+        if (cached != null && diff(cached, window).isEmpty()) {
+            unchangedFetches.incrementAndGet();
+            unchangedBytes.addAndGet(window.bytes);
+        }
+        windows.put(key, window);
+        return list;
+    }
+
+    public synchronized void updateScheduledActivities(List<ScheduledActivity> activities) throws Exception {
+        usersApi.updateScheduledActivities(activities).execute();
+        invalidate();
+    }
+
+    public synchronized void invalidate() {
+        windows.clear();
+    }
+
+    /** Calls made to the cache. */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /** Calls that had to go to the server. */
+    public long getServerCalls() {
+        return serverCalls.get();
+    }
+
+    /** Calls served from the cache. */
+    public long getCallsSaved() {
+        return calls.get() - serverCalls.get();
+    }
+
+    /** Estimated response bytes downloaded (see the class comment). */
+    public long getBytesFetched() {
+        return bytesFetched.get();
+    }
+
+    /** Estimated response bytes not downloaded because the window was served from the cache. */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    /** Server calls that returned exactly the window we already had, i.e. the calls a delta endpoint could skip. */
+    public long getUnchangedFetches() {
+        return unchangedFetches.get();
+    }
+
+    /** Estimated bytes of the unchanged fetches. */
+    public long getUnchangedBytes() {
+        return unchangedBytes.get();
+    }
+
+    public String summary() {
+        return String.format("calls=%d, serverCalls=%d, callsSaved=%d, bytesFetched=%d, bytesSaved=%d, "
+                + "unchangedFetches=%d, unchangedBytes=%d", getCalls(), getServerCalls(), getCallsSaved(),
+                getBytesFetched(), getBytesSaved(), getUnchangedFetches(), getUnchangedBytes());
+    }
+
+    static ActivityDiff diff(CachedWindow before, CachedWindow after) {
+        ActivityDiff diff = new ActivityDiff();
+        for (Map.Entry<String, ScheduledActivity> entry : after.byGuid.entrySet()) {
+            ScheduledActivity previous = before.byGuid.get(entry.getKey());
+            if (previous == null) {
+                diff.added.add(entry.getKey());
+            } else if (!Objects.equals(previous, entry.getValue())) {
+                diff.changed.add(entry.getKey());
+            }
+        }
+        for (String guid : before.byGuid.keySet()) {
+            if (!after.byGuid.containsKey(guid)) {
+                diff.removed.add(guid);
+            }
+        }
+        return diff;
+    }
+
+    // A fetched window. The activities diffed against are parsed from the JSON, so callers never hold them.
+    static class CachedWindow {
+        final String json;
+        final Map<String, ScheduledActivity> byGuid = new LinkedHashMap<>();
+        final int bytes;
+        final long fetchedOn;
+
+        CachedWindow(String json, long fetchedOn) {
+            this.json = json;
+            this.bytes = json.getBytes(StandardCharsets.UTF_8).length;
+            this.fetchedOn = fetchedOn;
+            for (ScheduledActivity activity : copy().getItems()) {
+                byGuid.put(activity.getGuid(), activity);
+            }
+        }
+
+        ScheduledActivityList copy() {
+            return HarnessCodecs.GSON.fromJson(json, ScheduledActivityList.class);
+        }
+    }
+
+    static class ActivityDiff {
+        final List<String> added = new ArrayList<>();
+        final List<String> removed = new ArrayList<>();
+        final List<String> changed = new ArrayList<>();
+
+        boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+    }
+}
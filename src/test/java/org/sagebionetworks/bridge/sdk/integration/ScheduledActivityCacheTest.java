@@ -0,0 +1,140 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesApi;
+import org.sagebionetworks.bridge.rest.model.GuidVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivity;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityList;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Replays an app-launch workload (every launch asks for the activity window, and now and then a launch finishes an
+ * activity) through {@link ScheduledActivityCache}, and reports how many calls and bytes the cache saves, plus how
+ * many server responses were identical to the window the client already had.
+ */
+@Category(LoadTest.class)
+public class ScheduledActivityCacheTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ScheduledActivityCacheTest.class);
+
+    private static final int USER_COUNT = LoadTestHelper.getIntProperty("load.users", 10);
+    private static final int LAUNCHES_PER_USER = LoadTestHelper.getIntProperty("load.launches", 20);
+    // Every Nth launch finishes an activity, which changes the window.
+    private static final int FINISH_EVERY_N_LAUNCHES = 5;
+    private static final long LAUNCH_INTERVAL_MILLIS = 250;
+    private static final long CACHE_TTL_MILLIS = 1000;
+
+    private TestUser developer;
+    private List<TestUser> users;
+    private GuidVersionHolder planKeys;
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(ScheduledActivityCacheTest.class, true, Role.DEVELOPER);
+        planKeys = developer.getClient(SchedulesApi.class).createSchedulePlan(Tests.getDailyRepeatingSchedulePlan())
+                .execute().body();
+        users = LoadTestHelper.createUsers(ScheduledActivityCacheTest.class, USER_COUNT, true);
+    }
+
+    @After
+    public void after() throws Exception {
+        try {
+            if (planKeys != null) {
+                developer.getClient(SchedulesApi.class).deleteSchedulePlan(planKeys.getGuid()).execute();
+            }
+        } finally {
+            LoadTestHelper.deleteUsers(users);
+            if (developer != null) {
+                developer.signOutAndDeleteUser();
+            }
+        }
+    }
+
+    @Test
+    public void finishedActivityIsNotServedFromCache() throws Exception {
+        ScheduledActivityCache cache = new ScheduledActivityCache(
+                users.get(0).getClient(ForConsentedUsersApi.class), CACHE_TTL_MILLIS * 60);
+
+        ScheduledActivityList activities = cache.getScheduledActivities("+00:00", 4, null);
+        assertTrue(activities.getItems().size() > 1);
+        assertEquals(activities, cache.getScheduledActivities("+00:00", 4, null));
+        assertEquals(1L, cache.getCallsSaved());
+
+        // Finishing an activity through the cache invalidates it, so the next call sees the new window.
+        ScheduledActivity finishMe = activities.getItems().get(0);
+        finishMe.setStartedOn(DateTime.now());
+        finishMe.setFinishedOn(DateTime.now());
+        cache.updateScheduledActivities(Lists.newArrayList(finishMe));
+
+        ScheduledActivityList updated = cache.getScheduledActivities("+00:00", 4, null);
+        assertEquals(2L, cache.getServerCalls());
+        for (ScheduledActivity activity : updated.getItems()) {
+            assertFalse(activity.getGuid().equals(finishMe.getGuid()));
+        }
+    }
+
+    @Test
+    public void replayAppLaunchWorkload() throws Exception {
+        LatencyRecorder launches = new LatencyRecorder("app launch (cached activity window)");
+        List<ScheduledActivityCache> caches = new ArrayList<>();
+        AtomicLong finishedCount = new AtomicLong();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (TestUser user : users) {
+            ScheduledActivityCache cache = new ScheduledActivityCache(user.getClient(ForConsentedUsersApi.class),
+                    CACHE_TTL_MILLIS);
+            caches.add(cache);
+            tasks.add(() -> {
+                for (int i = 1; i <= LAUNCHES_PER_USER; i++) {
+                    ScheduledActivityList list = launches.time(() -> cache.getScheduledActivities("+00:00", 4, null));
+                    if (i % FINISH_EVERY_N_LAUNCHES == 0 && !list.getItems().isEmpty()) {
+                        ScheduledActivity activity = list.getItems().get(0);
+                        activity.setStartedOn(DateTime.now());
+                        activity.setFinishedOn(DateTime.now());
+                        cache.updateScheduledActivities(Lists.newArrayList(activity));
+                        finishedCount.incrementAndGet();
+                    }
+                    Thread.sleep(LAUNCH_INTERVAL_MILLIS);
+                }
+                return null;
+            });
+        }
+        LoadTestHelper.runConcurrently(USER_COUNT, tasks);
+
+        long calls = 0L, serverCalls = 0L, bytesFetched = 0L, bytesSaved = 0L, unchanged = 0L, unchangedBytes = 0L;
+        for (ScheduledActivityCache cache : caches) {
+            calls += cache.getCalls();
+            serverCalls += cache.getServerCalls();
+            bytesFetched += cache.getBytesFetched();
+            bytesSaved += cache.getBytesSaved();
+            unchanged += cache.getUnchangedFetches();
+            unchangedBytes += cache.getUnchangedBytes();
+        }
+        launches.log();
+        LOG.info(String.format("%d launches, %d activities finished: serverCalls=%d, callsSaved=%d, bytesFetched=%d, "
+                + "bytesSaved=%d, unchanged server responses=%d (%d bytes)", calls, finishedCount.get(), serverCalls,
+                calls - serverCalls, bytesFetched, bytesSaved, unchanged, unchangedBytes));
+
+        assertEquals(USER_COUNT * LAUNCHES_PER_USER, calls);
+        assertTrue(serverCalls < calls);
+    }
+}
@@ -0,0 +1,95 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Runs many virtual users over the one {@link HttpTransport}: each user makes -Dload.requestsPerUser calls through its
+ * own TestUser.getClient(), with -Dload.threads calls in flight. The connections carrying those calls should be
+ * bounded by the transport's per-host limit, not by the number of users or threads, as long as the pool keeps that
+ * many idle connections (-Dload.http.maxIdleConnections, at least -Dload.http.maxRequestsPerHost). Pool utilization is
+ * appended to target/load-results/shared-transport.csv.
+ */
+@Category(LoadTest.class)
+public class SharedTransportScalingTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SharedTransportScalingTest.class);
+
+    private static final int USER_COUNT = LoadTestHelper.getIntProperty("load.users", 50);
+    private static final int REQUESTS_PER_USER = LoadTestHelper.getIntProperty("load.requestsPerUser", 5);
+    private static final int THREADS = LoadTestHelper.getIntProperty("load.threads", 100);
+
+    private static final String RESULTS_HEADER = "users,requests,threads,elapsedMs,requestsPerSecond,p50,p99,"
+            + "peakInFlight,maxRequestsPerHost,waitedMs,connectionsUsed,poolConnections,idleConnections";
+
+    private static List<TestUser> users;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        users = LoadTestHelper.createUsers(SharedTransportScalingTest.class, USER_COUNT, true);
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        LoadTestHelper.deleteUsers(users);
+    }
+
+    @Test
+    public void virtualUsersShareOnePool() throws Exception {
+        HttpTransport transport = HttpTransport.get();
+        List<ParticipantsApi> clients = new ArrayList<>();
+        for (TestUser user : users) {
+            clients.add(user.getClient(ParticipantsApi.class));
+        }
+
+        transport.resetCounters();
+        LatencyRecorder recorder = new LatencyRecorder("getUsersParticipantRecord, shared transport");
+        List<Callable<StudyParticipant>> tasks = new ArrayList<>();
+        for (int i = 0; i < REQUESTS_PER_USER; i++) {
+            for (ParticipantsApi client : clients) {
+                tasks.add(() -> recorder.time(() -> client.getUsersParticipantRecord().execute().body()));
+            }
+        }
+        long start = System.currentTimeMillis();
+        List<StudyParticipant> participants = LoadTestHelper.runConcurrently(THREADS, tasks);
+        long elapsedMillis = System.currentTimeMillis() - start;
+
+        for (StudyParticipant participant : participants) {
+            assertNotNull(participant);
+        }
+        recorder.log();
+        LOG.info(transport.summary());
+        double rate = LoadTestHelper.ratePerSecond(tasks.size(), elapsedMillis);
+        LOG.info(String.format("%d users, %d calls in %d ms (%.1f calls/s) over %d connections", USER_COUNT,
+                tasks.size(), elapsedMillis, rate, transport.getConnectionsUsed()));
+
+        // A connection is only opened for a call holding a slot, and goes back to the pool before the slot does.
+        assertTrue("Calls used more connections than the per-host limit: " + transport.summary(),
+                transport.getConnectionsUsed() <= transport.getMaxRequestsPerHost());
+        assertTrue("The pool held more connections than the per-host limit: " + transport.summary(),
+                transport.getConnectionCount() <= transport.getMaxRequestsPerHost());
+
+        List<String> rows = new ArrayList<>();
+        rows.add(USER_COUNT + "," + tasks.size() + "," + THREADS + "," + elapsedMillis + ","
+                + String.format("%.1f", rate) + "," + recorder.getPercentile(0.5) + ","
+                + recorder.getPercentile(0.99) + "," + transport.getPeakInFlight() + ","
+                + transport.getMaxRequestsPerHost() + "," + transport.getWaitMillis() + ","
+                + transport.getConnectionsUsed() + "," + transport.getConnectionCount() + ","
+                + transport.getIdleConnectionCount());
+        LoadTestHelper.appendResults("shared-transport", RESULTS_HEADER, rows);
+    }
+}
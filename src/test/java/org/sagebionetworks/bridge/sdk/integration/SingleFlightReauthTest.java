@@ -0,0 +1,108 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Stress test for {@link SingleFlightSession}: many threads share one user's session, the session is signed out, and
+ * all the threads call at the same moment. Every call must succeed and the session must sign in exactly once per
+ * sign-out. Threads (-Dload.threads) and rounds (-Dload.rounds) are configurable; each round's re-auth and wait
+ * latency is appended to target/load-results/single-flight-reauth.csv.
+ */
+@Category(LoadTest.class)
+public class SingleFlightReauthTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SingleFlightReauthTest.class);
+
+    private static final int THREADS = LoadTestHelper.getIntProperty("load.threads", 32);
+    private static final int ROUNDS = LoadTestHelper.getIntProperty("load.rounds", 3);
+    private static final String PATH = "/v3/participants/self";
+
+    private static final OkHttpClient HTTP_CLIENT = HttpTransport.get().getClient();
+
+    private static TestUser user;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        user = TestUserHelper.createAndSignInUser(SingleFlightReauthTest.class, true);
+    }
+
+    @AfterClass
+    public static void deleteUser() throws Exception {
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void concurrentCallersReauthenticateOnce() throws Exception {
+        SingleFlightSession session = new SingleFlightSession(user, HTTP_CLIENT);
+        try (Response response = session.execute(session.request(PATH))) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(0, session.getReauthCount());
+
+        List<String> rows = new ArrayList<>();
+        for (int round = 1; round <= ROUNDS; round++) {
+            String staleToken = session.getSessionToken();
+            user.signOut();
+            int coalescedBefore = session.getCoalescedCount();
+
+            // Every thread waits at the gate, so the calls hit the expired session together.
+            CountDownLatch ready = new CountDownLatch(THREADS);
+            CountDownLatch gate = new CountDownLatch(1);
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    ready.countDown();
+                    gate.await();
+                    try (Response response = session.execute(session.request(PATH))) {
+                        return response.code();
+                    }
+                });
+            }
+            Thread opener = new Thread(() -> {
+                try {
+                    ready.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                gate.countDown();
+            });
+            opener.start();
+            List<Integer> codes = LoadTestHelper.runConcurrently(THREADS, tasks);
+            opener.join();
+
+            for (int code : codes) {
+                assertEquals(200, code);
+            }
+            assertEquals("Concurrent callers should share one sign-in", round, session.getReauthCount());
+            assertNotEquals(staleToken, session.getSessionToken());
+
+            int coalesced = session.getCoalescedCount() - coalescedBefore;
+            LOG.info(String.format("Round %d: %d callers, 1 re-auth, %d waited on it", round, THREADS, coalesced));
+            rows.add(round + "," + THREADS + "," + coalesced + ","
+                    + session.getReauthLatency().getPercentile(0.5) + ","
+                    + session.getWaitLatency().getPercentile(0.5) + "," + session.getWaitLatency().getMax());
+        }
+        session.getReauthLatency().log();
+        session.getWaitLatency().log();
+        LoadTestHelper.appendResults("single-flight-reauth", "round,callers,coalesced,reauthP50,waitP50,waitMax",
+                rows);
+    }
+}
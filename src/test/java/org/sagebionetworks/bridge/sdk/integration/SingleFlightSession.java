@@ -0,0 +1,146 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import org.sagebionetworks.bridge.rest.exceptions.ConsentRequiredException;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * One user's session shared by many threads, with single-flight re-authentication. Each ClientManager call that finds
+ * its session gone signs in again on its own, so when a session shared by many load threads expires, every in-flight
+ * thread signs in at once. Here, calls carry the current session token; the first call to get a 401 signs in once,
+ * and every other call that got a 401 with the same stale token waits for that sign-in and retries with the new
+ * token.
+ *
+ * <p>Calls are raw requests against the user's host, as in UserProfileTest, so callers build the request and must
+ * close the response; {@link #interceptor} does the same for a client's calls. The token is always the user's current
+ * one, so a sign-in made through the TestUser itself is picked up too. Re-authentications, the callers that waited on
+ * another thread's sign-in instead of signing in themselves, and the time spent in both, are counted for the load
+ * reports.</p>
+ */
+public class SingleFlightSession {
+    private static final int NOT_AUTHENTICATED = 401;
+
+    private final TestUser user;
+    private final OkHttpClient client;
+    private final Object reauthLock = new Object();
+    private final AtomicInteger reauthCount = new AtomicInteger();
+    private final AtomicInteger coalescedCount = new AtomicInteger();
+    private final LatencyRecorder reauthLatency = new LatencyRecorder("single-flight re-authentication");
+    private final LatencyRecorder waitLatency = new LatencyRecorder("waiting on re-authentication");
+
+    /** If the user isn't signed in yet, the first call gets a 401 and signs in. */
+    public SingleFlightSession(TestUser user, OkHttpClient client) {
+        checkNotNull(user);
+        checkNotNull(client);
+        this.user = user;
+        this.client = client;
+    }
+
+    /** A request builder for the path on the user's host, e.g. "/v3/participants/self". */
+    public Request.Builder request(String path) {
+        return new Request.Builder().url(user.getClientManager().getHostUrl() + path);
+    }
+
+    /**
+     * Sends the request with the current session token. On a 401, signs in again (or waits for the caller already
+     * doing so) and sends the request once more with the new token.
+     */
+    public Response execute(Request.Builder request) throws IOException {
+        String token = getSessionToken();
+        Response response = send(request, token);
+        if (response.code() != NOT_AUTHENTICATED) {
+            return response;
+        }
+        response.close();
+        return send(request, reauthenticate(token));
+    }
+
+    /**
+     * An interceptor that does the same for calls made through another client, such as the Retrofit clients of
+     * {@link ClientVariants}: it sets the session token on every request and handles a 401 by single-flight sign-in.
+     * It sends the request twice on a 401, so it belongs outside the transport's slot (see HttpTransport.newClient).
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            String token = getSessionToken();
+            Response response = chain.proceed(withToken(chain.request(), token));
+            if (response.code() != NOT_AUTHENTICATED) {
+                return response;
+            }
+            response.close();
+            return chain.proceed(withToken(chain.request(), reauthenticate(token)));
+        };
+    }
+
+    /** The user's current session token, or null if the user hasn't signed in. */
+    public String getSessionToken() {
+        UserSessionInfo session = user.getSession();
+        return (session == null) ? null : session.getSessionToken();
+    }
+
+    /** Sign-ins this session has made. */
+    public int getReauthCount() {
+        return reauthCount.get();
+    }
+
+    /** Callers that got a 401 and used another caller's sign-in rather than making their own. */
+    public int getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public LatencyRecorder getReauthLatency() {
+        return reauthLatency;
+    }
+
+    public LatencyRecorder getWaitLatency() {
+        return waitLatency;
+    }
+
+    private Response send(Request.Builder request, String token) throws IOException {
+        return client.newCall(withToken(request.build(), token)).execute();
+    }
+
+    private static Request withToken(Request request, String token) {
+        return (token == null) ? request : request.newBuilder().header("Bridge-Session", token).build();
+    }
+
+    // Signs in unless another caller already replaced the stale token while this one waited for the lock.
+    private String reauthenticate(String staleToken) throws IOException {
+        long start = System.currentTimeMillis();
+        synchronized (reauthLock) {
+            String currentToken = getSessionToken();
+            if (currentToken != null && !Objects.equals(staleToken, currentToken)) {
+                coalescedCount.incrementAndGet();
+                waitLatency.record(System.currentTimeMillis() - start);
+                return currentToken;
+            }
+            try {
+                reauthLatency.time(() -> {
+                    try {
+                        return user.signInAgain();
+                    } catch (ConsentRequiredException ex) {
+                        // Still a valid session (signInAgain() keeps it); calls that need consent get their own 412.
+                        return ex.getSession();
+                    }
+                });
+            } catch (IOException | RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IOException(ex);
+            }
+            reauthCount.incrementAndGet();
+            return getSessionToken();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.rest.model.VersionHolder;
+
+/**
+ * Client-side cache of study documents for one {@link StudiesApi} (and so one signed-in user, since getUsersStudy()
+ * depends on the session). A study fetched less than the TTL ago is served locally; after that it is revalidated by
+ * fetching it again. Updates made through the cache store the written study with the version the server returned,
+ * so a later get-modify-update cycle through the cache doesn't conflict and doesn't need a fetch. Fields the server
+ * fills in on write (e.g. its own data groups) are picked up at the next revalidation.
+ *
+ * <p>Each call returns a fresh copy, so callers can modify the study (and pass it back to an update) without
+ * changing what is cached.</p>
+ */
+public class StudyCache {
+
+    private final StudiesApi studiesApi;
+    private final long ttlMillis;
+    private final Map<String, CachedStudy> studies = new HashMap<>();
+    // The identifier getUsersStudy() resolved to, once known.
+    private String usersStudyId;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong unchangedFetches = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong bytesFetched = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * @param ttlMillis
+     *         how long a fetched (or written) study is served before it is revalidated
+     */
+    public StudyCache(StudiesApi studiesApi, long ttlMillis) {
+        checkNotNull(studiesApi);
+        this.studiesApi = studiesApi;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public synchronized Study getUsersStudy() throws Exception {
+        calls.incrementAndGet();
+        Study cached = getFresh(usersStudyId);
+        if (cached != null) {
+            return cached;
+        }
+        Study study = studiesApi.getUsersStudy().execute().body();
+        usersStudyId = study.getIdentifier();
+        return cacheFetched(study);
+    }
+
+    public synchronized Study getStudy(String identifier) throws Exception {
+        calls.incrementAndGet();
+        Study cached = getFresh(identifier);
+        if (cached != null) {
+            return cached;
+        }
+        return cacheFetched(studiesApi.getStudy(identifier).execute().body());
+    }
+
+    public synchronized VersionHolder updateUsersStudy(Study study) throws Exception {
+        VersionHolder holder = studiesApi.updateUsersStudy(study).execute().body();
+        cacheWritten(usersStudyId != null ? usersStudyId : study.getIdentifier(), study, holder);
+        return holder;
+    }
+
+    public synchronized VersionHolder updateStudy(String identifier, Study study) throws Exception {
+        VersionHolder holder = studiesApi.updateStudy(identifier, study).execute().body();
+        cacheWritten(identifier, study, holder);
+        return holder;
+    }
+
+    /** Forgets a study, so the next get fetches it. */
+    public synchronized void invalidate(String identifier) {
+        studies.remove(identifier);
+    }
+
+    /** Calls to getUsersStudy() and getStudy(). */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /** Gets served from the cache. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Gets that went to the server, because the study was missing or past its TTL. */
+    public long getFetches() {
+        return fetches.get();
+    }
+
+    /** Revalidations that returned the version already cached, i.e. fetches a longer TTL would have saved. */
+    public long getUnchangedFetches() {
+        return unchangedFetches.get();
+    }
+
+    /** Updates made through the cache. */
+    public long getUpdates() {
+        return updates.get();
+    }
+
+    public long getBytesFetched() {
+        return bytesFetched.get();
+    }
+
+    /** Study JSON bytes that were not downloaded because the study was served from the cache. */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public String summary() {
+        return String.format("study cache: calls=%d, hits=%d, fetches=%d, unchangedFetches=%d, updates=%d, "
+                + "bytesFetched=%d, bytesSaved=%d", getCalls(), getHits(), getFetches(), getUnchangedFetches(),
+                getUpdates(), getBytesFetched(), getBytesSaved());
+    }
+
+    private Study getFresh(String identifier) {
+        if (identifier == null) {
+            return null;
+        }
+        CachedStudy cached = studies.get(identifier);
+        if (cached == null || System.currentTimeMillis() - cached.cachedOn >= ttlMillis) {
+            return null;
+        }
+        hits.incrementAndGet();
+        bytesSaved.addAndGet(cached.bytes);
+        return cached.copy();
+    }
+
+    private Study cacheFetched(Study study) {
+        fetches.incrementAndGet();
+        CachedStudy previous = studies.get(study.getIdentifier());
+        if (previous != null && Objects.equals(previous.version, study.getVersion())) {
+            unchangedFetches.incrementAndGet();
+        }
+        CachedStudy cached = new CachedStudy(study);
+        bytesFetched.addAndGet(cached.bytes);
+        studies.put(study.getIdentifier(), cached);
+        return cached.copy();
+    }
+
+    private void cacheWritten(String identifier, Study study, VersionHolder holder) {
+        updates.incrementAndGet();
+        if (identifier == null) {
+            return;
+        }
+        // Copy before setting the version, so the caller's object is left as it was passed in.
+        Study written = RestUtils.GSON.fromJson(RestUtils.GSON.toJson(study), Study.class);
+        written.setVersion(holder.getVersion());
+        studies.put(identifier, new CachedStudy(written));
+    }
+
+    // Held as JSON, which is both the copy source and the measure of what a hit saves.
+    private static final class CachedStudy {
+        private final String json;
+        private final Long version;
+        private final int bytes;
+        private final long cachedOn;
+
+        CachedStudy(Study study) {
+            this.json = RestUtils.GSON.toJson(study);
+            this.version = study.getVersion();
+            this.bytes = json.getBytes(StandardCharsets.UTF_8).length;
+            this.cachedOn = System.currentTimeMillis();
+        }
+
+        Study copy() {
+            return RestUtils.GSON.fromJson(json, Study.class);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.rest.model.VersionHolder;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Verifies that {@link StudyCache} serves studies within the TTL, carries the version returned by its own updates, and
+ * revalidates after the TTL, then replays a config-heavy read workload to report the hit rate and bytes saved. Uses a
+ * study created for the test, so the shared test study is never modified.
+ */
+@Category(LoadTest.class)
+public class StudyCacheTest {
+    private static final Logger LOG = LoggerFactory.getLogger(StudyCacheTest.class);
+
+    private static final int READS = LoadTestHelper.getIntProperty("load.reads", 100);
+    private static final long TTL_MILLIS = 2000;
+
+    private TestUser admin;
+    private StudiesApi studiesApi;
+    private String studyId;
+
+    @Before
+    public void before() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        studiesApi = admin.getClient(StudiesApi.class);
+        studyId = Tests.randomIdentifier(StudyCacheTest.class);
+        studiesApi.createStudy(Tests.getStudy(studyId, null)).execute();
+    }
+
+    @After
+    public void after() throws Exception {
+        if (studyId != null) {
+            studiesApi.deleteStudy(studyId, true).execute();
+        }
+    }
+
+    @Test
+    public void studyIsServedWithinTtl() throws Exception {
+        StudyCache cache = new StudyCache(studiesApi, TTL_MILLIS);
+        Study study = cache.getStudy(studyId);
+        Study cached = cache.getStudy(studyId);
+        assertEquals(study, cached);
+        // Copies, so callers can't change the cached study.
+        assertNotSame(study, cached);
+        assertEquals(1L, cache.getFetches());
+        assertEquals(1L, cache.getHits());
+    }
+
+    @Test
+    public void updatesThroughCacheCarryTheNewVersion() throws Exception {
+        StudyCache cache = new StudyCache(studiesApi, TTL_MILLIS);
+        Study study = cache.getStudy(studyId);
+        study.setSponsorName("Sponsor 1");
+        VersionHolder holder = cache.updateStudy(studyId, study);
+
+        // Served locally, with the server's new version, so a second update doesn't conflict.
+        Study updated = cache.getStudy(studyId);
+        assertEquals(holder.getVersion(), updated.getVersion());
+        assertEquals("Sponsor 1", updated.getSponsorName());
+        updated.setSponsorName("Sponsor 2");
+        cache.updateStudy(studyId, updated);
+        assertEquals(1L, cache.getFetches());
+
+        Study fromServer = studiesApi.getStudy(studyId).execute().body();
+        assertEquals("Sponsor 2", fromServer.getSponsorName());
+        assertEquals(fromServer.getVersion(), cache.getStudy(studyId).getVersion());
+    }
+
+    @Test
+    public void studyIsRevalidatedAfterTtl() throws Exception {
+        StudyCache cache = new StudyCache(studiesApi, TTL_MILLIS);
+        Study study = cache.getStudy(studyId);
+
+        // Changed behind the cache's back.
+        Study other = studiesApi.getStudy(studyId).execute().body();
+        other.setSponsorName("Changed elsewhere");
+        studiesApi.updateStudy(studyId, other).execute();
+        assertEquals(study.getVersion(), cache.getStudy(studyId).getVersion());
+
+        Thread.sleep(TTL_MILLIS + 500);
+        Study revalidated = cache.getStudy(studyId);
+        assertNotEquals(study.getVersion(), revalidated.getVersion());
+        assertEquals("Changed elsewhere", revalidated.getSponsorName());
+        assertEquals(2L, cache.getFetches());
+        assertEquals(0L, cache.getUnchangedFetches());
+    }
+
+    @Test
+    public void replayStudyReads() throws Exception {
+        LatencyRecorder uncached = new LatencyRecorder("getStudy, uncached");
+        LatencyRecorder cached = new LatencyRecorder("getStudy, cached");
+        StudyCache cache = new StudyCache(studiesApi, TTL_MILLIS);
+        for (int i = 0; i < READS; i++) {
+            uncached.time(() -> studiesApi.getStudy(studyId).execute().body());
+            cached.time(() -> cache.getStudy(studyId));
+        }
+        uncached.log();
+        cached.log();
+        LOG.info(cache.summary());
+        assertEquals(READS, cache.getHits() + cache.getFetches());
+    }
+}
@@ -0,0 +1,196 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.StudyConsentsApi;
+import org.sagebionetworks.bridge.rest.api.SubpopulationsApi;
+import org.sagebionetworks.bridge.rest.model.ConsentSignature;
+import org.sagebionetworks.bridge.rest.model.ConsentStatus;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SharingScope;
+import org.sagebionetworks.bridge.rest.model.StudyConsent;
+import org.sagebionetworks.bridge.rest.model.StudyConsentList;
+import org.sagebionetworks.bridge.rest.model.Subpopulation;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Builds a long consent history on one subpopulation and measures how consent lookups behave as it grows. Versions
+ * are created in cumulative tiers (-Dload.consentVersions); every tenth version has a large HTML body
+ * (-Dload.largeConsentKb), the rest a small one. At each tier the scenario times getAllConsents (and its response
+ * size), getMostRecentConsent and getPublishedConsent, and publishConsent. It also measures what a publish does to
+ * sign-in: a user who signed the first version signs in right after each publish, and again after a settle interval
+ * (-Dload.settleMillis) with no other calls, and both sessions must report that the user hasn't signed the most recent
+ * consent. Results are appended to target/load-results/consent-history.csv.
+ *
+ * <p>As in StudyConsentTest, the history is built on a subpopulation created for the scenario and not required, so
+ * it doesn't affect other tests' users, and deleting it cleans up every version.</p>
+ */
+@Category(LoadTest.class)
+public class StudyConsentHistoryScalingTest {
+    private static final Logger LOG = LoggerFactory.getLogger(StudyConsentHistoryScalingTest.class);
+
+    // Cumulative: with the defaults, the history grows to 10 versions, then 50, then 200.
+    private static final List<Integer> CONSENT_VERSIONS = LoadTestHelper.getIntListProperty("load.consentVersions",
+            "10,50,200");
+    private static final int LARGE_CONSENT_KB = LoadTestHelper.getIntProperty("load.largeConsentKb", 256);
+    private static final int SMALL_CONSENT_KB = 4;
+    private static final int LARGE_EVERY = 10;
+    private static final int SAMPLES = LoadTestHelper.getIntProperty("load.samples", 10);
+    // Quiet time after a publish before the settled sign-in, so caches the publish touched can catch up.
+    private static final int SETTLE_MILLIS = LoadTestHelper.getIntProperty("load.settleMillis", 2000);
+
+    private static final String RESULTS_HEADER = "versions,listBytes,listP50,listP99,mostRecentP50,mostRecentP99,"
+            + "publishedP50,publishedP99,publishP50,publishP99,signInAfterPublishP50,signInAfterPublishP99,"
+            + "signInSettledP50,signInSettledP99";
+
+    private static TestUser admin;
+    private static TestUser developer;
+    private static TestUser user;
+
+    private ResourceCleaner cleaner;
+    private String subpopGuid;
+    private final List<DateTime> versions = new ArrayList<>();
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        developer = TestUserHelper.createAndSignInUser(StudyConsentHistoryScalingTest.class, false,
+                Role.DEVELOPER);
+        user = TestUserHelper.createAndSignInUser(StudyConsentHistoryScalingTest.class, true);
+    }
+
+    @Before
+    public void before() throws Exception {
+        cleaner = new ResourceCleaner(admin);
+        Subpopulation subpop = new Subpopulation();
+        subpop.setName(Tests.randomIdentifier(StudyConsentHistoryScalingTest.class));
+        subpop.setRequired(false);
+        subpopGuid = developer.getClient(SubpopulationsApi.class).createSubpopulation(subpop).execute().body()
+                .getGuid();
+        cleaner.registerSubpopulation(subpopGuid);
+    }
+
+    @After
+    public void after() throws Exception {
+        assertTrue("Subpopulation leaked", cleaner.cleanup().isEmpty());
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteUser() throws Exception {
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void lookupsAsConsentHistoryGrows() throws Exception {
+        StudyConsentsApi consentsApi = developer.getClient(StudyConsentsApi.class);
+
+        // The user signs the subpopulation's first (default, published) version.
+        ConsentSignature signature = new ConsentSignature().name("History Signer")
+                .birthdate(new LocalDate(1970, 1, 1)).scope(SharingScope.NO_SHARING);
+        user.getClient(ForConsentedUsersApi.class).createConsentSignature(subpopGuid, signature).execute();
+        versions.add(consentsApi.getPublishedConsent(subpopGuid).execute().body().getCreatedOn());
+
+        List<String> rows = new ArrayList<>();
+        for (int versionCount : CONSENT_VERSIONS) {
+            LatencyRecorder create = new LatencyRecorder("createConsent, up to " + versionCount + " versions");
+            // At least two, so every publish below can change the published version.
+            while (versions.size() < Math.max(versionCount, 2)) {
+                StudyConsent consent = new StudyConsent();
+                consent.setDocumentContent(documentContent(versions.size()));
+                versions.add(create.time(() -> consentsApi.createConsent(subpopGuid, consent).execute().body()
+                        .getCreatedOn()));
+            }
+            create.log();
+
+            LatencyRecorder list = new LatencyRecorder("getAllConsents, " + versionCount + " versions");
+            LatencyRecorder mostRecent = new LatencyRecorder("getMostRecentConsent, " + versionCount + " versions");
+            LatencyRecorder published = new LatencyRecorder("getPublishedConsent, " + versionCount + " versions");
+            LatencyRecorder publish = new LatencyRecorder("publishConsent, " + versionCount + " versions");
+            LatencyRecorder signInAfterPublish = new LatencyRecorder("signIn after publish, " + versionCount
+                    + " versions");
+            LatencyRecorder signInSettled = new LatencyRecorder("signIn " + SETTLE_MILLIS + " ms after publish, "
+                    + versionCount + " versions");
+            int listBytes = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                StudyConsentList consents = list.time(() -> consentsApi.getAllConsents(subpopGuid).execute()
+                        .body());
+                assertEquals((Integer)versions.size(), consents.getTotal());
+                listBytes = RestUtils.GSON.toJson(consents).getBytes(StandardCharsets.UTF_8).length;
+                StudyConsent latest = mostRecent.time(() -> consentsApi.getMostRecentConsent(subpopGuid).execute()
+                        .body());
+                assertEquals(versions.get(versions.size() - 1), latest.getCreatedOn());
+
+                // Alternate between the two newest versions, so every publish changes the published version.
+                DateTime toPublish = versions.get(versions.size() - 1 - (i % 2));
+                publish.time(() -> consentsApi.publishConsent(subpopGuid, toPublish).execute());
+                StudyConsent current = published.time(() -> consentsApi.getPublishedConsent(subpopGuid).execute()
+                        .body());
+                assertEquals(toPublish, current.getCreatedOn());
+
+                UserSessionInfo session = signInAfterPublish.time(user::signInAgain);
+                assertFalse("User signed an older version", signedMostRecent(session));
+                Thread.sleep(SETTLE_MILLIS);
+                session = signInSettled.time(user::signInAgain);
+                assertFalse("User signed an older version", signedMostRecent(session));
+            }
+            for (LatencyRecorder recorder : new LatencyRecorder[] { list, mostRecent, published, publish,
+                    signInAfterPublish, signInSettled }) {
+                recorder.log();
+            }
+            LOG.info(versionCount + " versions: getAllConsents response is " + listBytes + " bytes");
+            rows.add(versionCount + "," + listBytes + "," + list.getPercentile(0.5) + "," + list.getPercentile(0.99)
+                    + "," + mostRecent.getPercentile(0.5) + "," + mostRecent.getPercentile(0.99) + ","
+                    + published.getPercentile(0.5) + "," + published.getPercentile(0.99) + ","
+                    + publish.getPercentile(0.5) + "," + publish.getPercentile(0.99) + ","
+                    + signInAfterPublish.getPercentile(0.5) + "," + signInAfterPublish.getPercentile(0.99) + ","
+                    + signInSettled.getPercentile(0.5) + "," + signInSettled.getPercentile(0.99));
+        }
+        LoadTestHelper.appendResults("consent-history", RESULTS_HEADER, rows);
+    }
+
+    private boolean signedMostRecent(UserSessionInfo session) {
+        ConsentStatus status = session.getConsentStatuses().get(subpopGuid);
+        return status != null && Boolean.TRUE.equals(status.getSignedMostRecentConsent());
+    }
+
+    // An HTML consent document of roughly the tier's size, different for every version.
+    private static String documentContent(int version) {
+        int targetBytes = ((version % LARGE_EVERY == 0) ? LARGE_CONSENT_KB : SMALL_CONSENT_KB) * 1024;
+        StringBuilder builder = new StringBuilder("<h1>Consent, version ").append(version).append("</h1>");
+        for (int section = 1; builder.length() < targetBytes; section++) {
+            builder.append("<h2>Section ").append(section).append("</h2><p>By taking part in this study you agree ")
+                    .append("that the data you contribute may be used for research. This is revision ")
+                    .append(version).append(" of section ").append(section).append(".</p>");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,203 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.AuthenticationApi;
+import org.sagebionetworks.bridge.rest.api.SubpopulationsApi;
+import org.sagebionetworks.bridge.rest.exceptions.ConsentRequiredException;
+import org.sagebionetworks.bridge.rest.model.ClientInfo;
+import org.sagebionetworks.bridge.rest.model.Criteria;
+import org.sagebionetworks.bridge.rest.model.GuidVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Subpopulation;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Measures what each extra subpopulation costs on the sign-in hot path. Sign-in evaluates every subpopulation's
+ * criteria against the caller's User-Agent to build the session's consentStatuses, so the scenario adds
+ * subpopulations in tiers (cumulative, -Dload.subpopulationCounts) with a mix of criteria: Android version ranges,
+ * iOS minimums, both, and none. At each tier an unconsented user signs in under several User-Agents (different OSes
+ * and app versions, and one with no OS), and the scenario records sign-in latency, how many consent statuses matched,
+ * and the size of the session carried by the 412 ConsentRequiredException. Results are appended to
+ * target/load-results/subpopulation-scaling.csv.
+ *
+ * <p>The subpopulations are created in the shared test study, so none are required; a required one would make
+ * every other test's users unconsented while the scenario runs.</p>
+ */
+@Category(LoadTest.class)
+public class SubpopulationScalingTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SubpopulationScalingTest.class);
+
+    // Cumulative: with the defaults, 1 subpopulation is created, then 9 more, and so on up to 200.
+    private static final List<Integer> SUBPOPULATION_COUNTS = LoadTestHelper.getIntListProperty(
+            "load.subpopulationCounts", "1,10,50,100,200");
+    private static final int SAMPLES = LoadTestHelper.getIntProperty("load.samples", 10);
+    private static final int THREADS = LoadTestHelper.getIntProperty("load.threads", 8);
+
+    private static TestUser admin;
+    private static TestUser developer;
+    private static TestUser user;
+    private static ClientVariants clients;
+
+    private ResourceCleaner cleaner;
+    private List<String> created;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        developer = TestUserHelper.createAndSignInUser(SubpopulationScalingTest.class, false, Role.DEVELOPER);
+        user = TestUserHelper.createAndSignInUser(SubpopulationScalingTest.class, false);
+        clients = new ClientVariants(user);
+    }
+
+    @Before
+    public void before() {
+        cleaner = new ResourceCleaner(admin);
+        created = new ArrayList<>();
+    }
+
+    @After
+    public void after() throws Exception {
+        assertTrue("Subpopulations leaked", cleaner.cleanup().isEmpty());
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteUser() throws Exception {
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void signInAsSubpopulationCountGrows() throws Exception {
+        SubpopulationsApi subpopulationsApi = developer.getClient(SubpopulationsApi.class);
+        int baseline = subpopulationsApi.getSubpopulations().execute().body().getTotal();
+
+        Map<String, AuthenticationApi> userAgents = new LinkedHashMap<>();
+        userAgents.put("Android v2", authApi(Tests.getClientInfoWithVersion("Android", 2)));
+        userAgents.put("Android v12", authApi(Tests.getClientInfoWithVersion("Android", 12)));
+        userAgents.put("iPhone OS v5", authApi(Tests.getClientInfoWithVersion("iPhone OS", 5)));
+        userAgents.put("iPhone OS v20", authApi(Tests.getClientInfoWithVersion("iPhone OS", 20)));
+        userAgents.put("no OS", authApi(Tests.getClientInfoWithVersion(null, null)));
+
+        List<String> rows = new ArrayList<>();
+        Map<String, Long> firstP50 = new LinkedHashMap<>();
+        Map<String, Long> lastP50 = new LinkedHashMap<>();
+        for (int count : SUBPOPULATION_COUNTS) {
+            LatencyRecorder create = new LatencyRecorder("createSubpopulation, up to " + count);
+            createSubpopulations(subpopulationsApi, create, count);
+            create.log();
+            int total = subpopulationsApi.getSubpopulations().execute().body().getTotal();
+            assertTrue("Listing should include the scenario's subpopulations", total >= baseline + created.size());
+
+            for (Map.Entry<String, AuthenticationApi> entry : userAgents.entrySet()) {
+                LatencyRecorder signIn = new LatencyRecorder("signIn, " + entry.getKey() + ", " + total
+                        + " subpopulations");
+                UserSessionInfo session = null;
+                for (int i = 0; i < SAMPLES; i++) {
+                    session = signIn(entry.getValue(), signIn);
+                }
+                signIn.log();
+                int statuses = session.getConsentStatuses().size();
+                int sessionBytes = RestUtils.GSON.toJson(session).getBytes(StandardCharsets.UTF_8).length;
+                LOG.info(String.format("%s, %d subpopulations: %d consent statuses, session %d bytes",
+                        entry.getKey(), total, statuses, sessionBytes));
+                rows.add(total + ",\"" + entry.getKey() + "\"," + statuses + "," + sessionBytes + ","
+                        + signIn.getPercentile(0.5) + "," + signIn.getPercentile(0.99));
+
+                firstP50.putIfAbsent(entry.getKey(), signIn.getPercentile(0.5));
+                lastP50.put(entry.getKey(), signIn.getPercentile(0.5));
+            }
+        }
+        LoadTestHelper.appendResults("subpopulation-scaling", "subpopulations,userAgent,consentStatuses,"
+                + "sessionBytes,signInP50,signInP99", rows);
+
+        int added = created.size() - SUBPOPULATION_COUNTS.get(0);
+        if (added > 0) {
+            for (String userAgent : userAgents.keySet()) {
+                LOG.info(String.format("%s: %.2f ms of sign-in p50 per extra subpopulation", userAgent,
+                        (lastP50.get(userAgent) - firstP50.get(userAgent)) / (double)added));
+            }
+        }
+    }
+
+    // Creates subpopulations until the scenario has the given number. Criteria rotate through four shapes.
+    private void createSubpopulations(SubpopulationsApi subpopulationsApi, LatencyRecorder recorder, int total)
+            throws Exception {
+        List<Callable<GuidVersionHolder>> tasks = new ArrayList<>();
+        for (int i = created.size(); i < total; i++) {
+            Criteria criteria = new Criteria();
+            switch (i % 4) {
+                case 0:
+                    criteria.getMinAppVersions().put("Android", i % 10);
+                    criteria.getMaxAppVersions().put("Android", 10 + i % 10);
+                    break;
+                case 1:
+                    criteria.getMinAppVersions().put("iPhone OS", i % 20);
+                    break;
+                case 2:
+                    criteria.getMinAppVersions().put("Android", 5);
+                    criteria.getMinAppVersions().put("iPhone OS", 10);
+                    criteria.getMaxAppVersions().put("iPhone OS", 15);
+                    break;
+                default:
+                    // No app version criteria: matches every client.
+                    break;
+            }
+            Subpopulation subpopulation = new Subpopulation();
+            subpopulation.setName("Scaling Consent Group " + i);
+            subpopulation.setCriteria(criteria);
+            subpopulation.setRequired(false);
+            tasks.add(() -> recorder.time(() -> subpopulationsApi.createSubpopulation(subpopulation).execute()
+                    .body()));
+        }
+        for (GuidVersionHolder keys : LoadTestHelper.runConcurrently(THREADS, tasks)) {
+            cleaner.registerSubpopulation(keys.getGuid());
+            created.add(keys.getGuid());
+        }
+    }
+
+    // Signs in; the user has never consented, so the session comes back with the 412.
+    private static UserSessionInfo signIn(AuthenticationApi authApi, LatencyRecorder recorder) throws Exception {
+        long start = System.nanoTime();
+        try {
+            authApi.signIn(user.getSignIn()).execute();
+        } catch (ConsentRequiredException ex) {
+            recorder.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return ex.getSession();
+        }
+        throw new IllegalStateException("Sign in should require consent");
+    }
+
+    // Sign-in calls with this User-Agent, over the shared transport; they throw the SDK's exceptions.
+    private static AuthenticationApi authApi(ClientInfo clientInfo) {
+        return clients.getSignInClient(AuthenticationApi.class, clientInfo, Lists.newArrayList("en"));
+    }
+}
@@ -12,19 +12,15 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
-import org.sagebionetworks.bridge.rest.ClientManager;
 import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
-import org.sagebionetworks.bridge.rest.api.AuthenticationApi;
 import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
 import org.sagebionetworks.bridge.rest.api.SubpopulationsApi;
 import org.sagebionetworks.bridge.rest.exceptions.BadRequestException;
 import org.sagebionetworks.bridge.rest.exceptions.ConsentRequiredException;
-import org.sagebionetworks.bridge.rest.model.ClientInfo;
 import org.sagebionetworks.bridge.rest.model.ConsentStatus;
 import org.sagebionetworks.bridge.rest.model.Criteria;
 import org.sagebionetworks.bridge.rest.model.GuidVersionHolder;
 import org.sagebionetworks.bridge.rest.model.Role;
-import org.sagebionetworks.bridge.rest.model.SignIn;
 import org.sagebionetworks.bridge.rest.model.Subpopulation;
 import org.sagebionetworks.bridge.rest.model.SubpopulationList;
 
@@ -133,8 +129,8 @@ public class SubpopulationTest {
             // Manipulate the User-Agent string and see the 412 exception contain different 
             // required subpopulations
             try {
-                ClientManager manager = clientManager(user.getSignIn(), getClientInfoWithVersion("Android", 2));
-                manager.getClient(AuthenticationApi.class).signIn(user.getSignIn()).execute();
+                user.setClientInfo(Tests.getClientInfoWithVersion("Android", 2));
+                user.signInAgain();
                 fail("Should have thrown exception");
             } catch(ConsentRequiredException e) {
                 Map<String,ConsentStatus> statuses = e.getSession().getConsentStatuses();
@@ -144,8 +140,8 @@ public class SubpopulationTest {
             }
             try {
                 user.signOut();
-                ClientManager manager = clientManager(user.getSignIn(), getClientInfoWithVersion("Android", 12));
-                manager.getClient(AuthenticationApi.class).signIn(user.getSignIn()).execute();
+                user.setClientInfo(Tests.getClientInfoWithVersion("Android", 12));
+                user.signInAgain();
                 fail("Should have thrown exception");
             } catch(ConsentRequiredException e) {
                 Map<String,ConsentStatus> statuses = e.getSession().getConsentStatuses();
@@ -155,8 +151,8 @@ public class SubpopulationTest {
             // Finally... both are returned to an iOS client
             try {
                 user.signOut();
-                ClientManager manager = clientManager(user.getSignIn(), getClientInfoWithVersion("iPhone OS", 12));
-                manager.getClient(AuthenticationApi.class).signIn(user.getSignIn()).execute();
+                user.setClientInfo(Tests.getClientInfoWithVersion("iPhone OS", 12));
+                user.signInAgain();
                 fail("Should have thrown exception");
             } catch(ConsentRequiredException e) {
                 Map<String,ConsentStatus> statuses = e.getSession().getConsentStatuses();
@@ -175,30 +171,12 @@ public class SubpopulationTest {
         }
     }
     
-    private ClientManager clientManager(SignIn signIn, ClientInfo clientInfo) {
-        return new ClientManager.Builder()
-                .withSignIn(signIn)
-                .withClientInfo(clientInfo).build();
-    }
-    
     private void updateSubpopulation(SubpopulationsApi subpopulationsApi, Subpopulation subpop) throws Exception {
         GuidVersionHolder holder = subpopulationsApi.createSubpopulation(subpop).execute().body();
         subpop.setGuid(holder.getGuid());
         subpop.setVersion(holder.getVersion());
     }
     
-    private ClientInfo getClientInfoWithVersion(String osName, Integer version) {
-        ClientInfo info = new ClientInfo();
-        info.setAppName("App");
-        info.setAppVersion(version);
-        info.setDeviceName("Integration Tests");
-        info.setOsName(osName);
-        info.setOsVersion("2.0.0");
-        info.setSdkName("BridgeJavaSDK");
-        info.setSdkVersion(Integer.parseInt(developer.getClientManager().getConfig().getSdkVersion()));
-        return info;
-    }
-    
     private Subpopulation findByName(List<Subpopulation> subpops, String name) {
         for (Subpopulation subpop : subpops) {
             if (subpop.getName().equals(name)) {
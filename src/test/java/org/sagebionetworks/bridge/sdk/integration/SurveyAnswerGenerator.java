@@ -0,0 +1,269 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalTime;
+
+import org.sagebionetworks.bridge.rest.model.BooleanConstraints;
+import org.sagebionetworks.bridge.rest.model.Constraints;
+import org.sagebionetworks.bridge.rest.model.DateConstraints;
+import org.sagebionetworks.bridge.rest.model.DateTimeConstraints;
+import org.sagebionetworks.bridge.rest.model.DecimalConstraints;
+import org.sagebionetworks.bridge.rest.model.DurationConstraints;
+import org.sagebionetworks.bridge.rest.model.IntegerConstraints;
+import org.sagebionetworks.bridge.rest.model.MultiValueConstraints;
+import org.sagebionetworks.bridge.rest.model.StringConstraints;
+import org.sagebionetworks.bridge.rest.model.SurveyQuestionOption;
+import org.sagebionetworks.bridge.rest.model.TimeConstraints;
+
+/**
+ * Generates a random answer that satisfies a question's {@link Constraints}. Answers are plain Java values: Boolean,
+ * Long (integer and duration, in the constraint's unit), BigDecimal, LocalDate, DateTime, LocalTime, String, or a
+ * List of option values for multi-value questions. String patterns are supported for the subset of regex syntax used
+ * in our test surveys (literals, escapes, \d, \w, character classes and {n}, {n,m}, ?, + and * quantifiers), and the
+ * generated string also honours the min and max length. Dates and date-times are never in the future unless the
+ * constraints allow it.
+ */
+public class SurveyAnswerGenerator {
+
+    private static final int DEFAULT_INTEGER_MIN = 0;
+    private static final int DEFAULT_INTEGER_MAX = 100;
+    private static final DateTime DEFAULT_EARLIEST = DateTime.parse("2000-01-01T00:00:00Z");
+    private static final int UNBOUNDED_REPEAT_MAX = 8;
+    private static final int PATTERN_ATTEMPTS = 100;
+    private static final int DEFAULT_FUTURE_DAYS = 365;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    private static final String WORD_CHARS = LETTERS + LETTERS.toUpperCase() + "0123456789_";
+
+    /**
+     * Checks up front that answers can be generated for these constraints, so a survey is rejected when it is
+     * compiled rather than part way through a load run.
+     */
+    public static void validate(Constraints constraints) {
+        if (constraints instanceof StringConstraints) {
+            StringConstraints sc = (StringConstraints)constraints;
+            if (sc.getPattern() != null) {
+                String sample = generatePattern(sc.getPattern(), new Random(0));
+                if (!Pattern.matches(sc.getPattern(), sample)) {
+                    throw new IllegalArgumentException("Unsupported string pattern: " + sc.getPattern());
+                }
+                if (generatePatternWithinLength(sc, new Random(0)) == null) {
+                    throw lengthMismatch(sc);
+                }
+            }
+        } else if (!(constraints instanceof BooleanConstraints || constraints instanceof IntegerConstraints
+                || constraints instanceof DecimalConstraints || constraints instanceof DurationConstraints
+                || constraints instanceof DateConstraints || constraints instanceof DateTimeConstraints
+                || constraints instanceof TimeConstraints || constraints instanceof MultiValueConstraints)) {
+            throw new IllegalArgumentException("Unsupported constraints: " + constraints);
+        }
+    }
+
+    public static Object generate(Constraints constraints, Random random) {
+        if (constraints instanceof BooleanConstraints) {
+            return random.nextBoolean();
+        } else if (constraints instanceof IntegerConstraints) {
+            IntegerConstraints ic = (IntegerConstraints)constraints;
+            return randomStep(ic.getMinValue(), ic.getMaxValue(), ic.getStep(), random);
+        } else if (constraints instanceof DurationConstraints) {
+            DurationConstraints dc = (DurationConstraints)constraints;
+            return randomStep(dc.getMinValue(), dc.getMaxValue(), dc.getStep(), random);
+        } else if (constraints instanceof DecimalConstraints) {
+            return generateDecimal((DecimalConstraints)constraints, random);
+        } else if (constraints instanceof DateConstraints) {
+            DateConstraints dc = (DateConstraints)constraints;
+            LocalDate earliest = dc.getEarliestValue() != null ? dc.getEarliestValue() :
+                    DEFAULT_EARLIEST.toLocalDate();
+            LocalDate today = LocalDate.now();
+            boolean allowFuture = Boolean.TRUE.equals(dc.getAllowFuture());
+            LocalDate latest = dc.getLatestValue() != null ? dc.getLatestValue() :
+                    allowFuture ? today.plusDays(DEFAULT_FUTURE_DAYS) : today;
+            if (!allowFuture && latest.isAfter(today)) {
+                latest = today;
+            }
+            int days = Math.max(0, Days.daysBetween(earliest, latest).getDays());
+            return earliest.plusDays(random.nextInt(days + 1));
+        } else if (constraints instanceof DateTimeConstraints) {
+            DateTimeConstraints dtc = (DateTimeConstraints)constraints;
+            long earliest = (dtc.getEarliestValue() != null ? dtc.getEarliestValue() : DEFAULT_EARLIEST)
+                    .getMillis();
+            DateTime now = DateTime.now();
+            boolean allowFuture = Boolean.TRUE.equals(dtc.getAllowFuture());
+            long latest = (dtc.getLatestValue() != null ? dtc.getLatestValue() :
+                    allowFuture ? now.plusDays(DEFAULT_FUTURE_DAYS) : now).getMillis();
+            if (!allowFuture) {
+                latest = Math.min(latest, now.getMillis());
+            }
+            long offset = latest > earliest ? (long)(random.nextDouble() * (latest - earliest)) : 0;
+            // Whole seconds, since that's what the upload format carries.
+            return new DateTime((earliest + offset) / 1000 * 1000, DateTimeZone.UTC);
+        } else if (constraints instanceof TimeConstraints) {
+            return new LocalTime(random.nextInt(24), random.nextInt(60));
+        } else if (constraints instanceof MultiValueConstraints) {
+            return generateChoices((MultiValueConstraints)constraints, random);
+        } else if (constraints instanceof StringConstraints) {
+            return generateString((StringConstraints)constraints, random);
+        }
+        throw new IllegalArgumentException("Unsupported constraints: " + constraints);
+    }
+
+    private static long randomStep(Integer minValue, Integer maxValue, Integer step, Random random) {
+        int min = minValue != null ? minValue : DEFAULT_INTEGER_MIN;
+        int max = maxValue != null ? maxValue : Math.max(min, DEFAULT_INTEGER_MAX);
+        int increment = (step != null && step > 0) ? step : 1;
+        int steps = (max - min) / increment;
+        return min + (long)random.nextInt(steps + 1) * increment;
+    }
+
+    private static BigDecimal generateDecimal(DecimalConstraints dc, Random random) {
+        BigDecimal min = dc.getMinValue() != null ? dc.getMinValue() : BigDecimal.valueOf(DEFAULT_INTEGER_MIN);
+        BigDecimal max = dc.getMaxValue() != null ? dc.getMaxValue() : BigDecimal.valueOf(DEFAULT_INTEGER_MAX);
+        BigDecimal step = (dc.getStep() != null && dc.getStep().signum() > 0) ? dc.getStep() : BigDecimal.ONE;
+        int steps = max.subtract(min).divide(step, 0, RoundingMode.FLOOR).intValue();
+        return min.add(step.multiply(BigDecimal.valueOf(random.nextInt(steps + 1))));
+    }
+
+    private static List<String> generateChoices(MultiValueConstraints mvc, Random random) {
+        List<String> values = new ArrayList<>();
+        for (SurveyQuestionOption option : mvc.getEnumeration()) {
+            values.add(option.getValue() != null ? option.getValue() : option.getLabel());
+        }
+        if (values.isEmpty()) {
+            return values;
+        }
+        if (!Boolean.TRUE.equals(mvc.getAllowMultiple())) {
+            return Collections.singletonList(values.get(random.nextInt(values.size())));
+        }
+        Collections.shuffle(values, random);
+        return new ArrayList<>(values.subList(0, 1 + random.nextInt(Math.min(values.size(), 3))));
+    }
+
+    private static String generateString(StringConstraints sc, Random random) {
+        if (sc.getPattern() != null) {
+            String answer = generatePatternWithinLength(sc, random);
+            if (answer == null) {
+                throw lengthMismatch(sc);
+            }
+            return answer;
+        }
+        int min = sc.getMinLength() != null ? sc.getMinLength() : 1;
+        int max = sc.getMaxLength() != null ? Math.min(sc.getMaxLength(), min + 20) : min + 20;
+        int length = min + random.nextInt(max - min + 1);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return builder.toString();
+    }
+
+    // The pattern's repeat counts are random, so retries until a string also fits the min and max length. Returns
+    // null if none did.
+    private static String generatePatternWithinLength(StringConstraints sc, Random random) {
+        int min = sc.getMinLength() != null ? sc.getMinLength() : 0;
+        int max = sc.getMaxLength() != null ? sc.getMaxLength() : Integer.MAX_VALUE;
+        for (int i = 0; i < PATTERN_ATTEMPTS; i++) {
+            String answer = generatePattern(sc.getPattern(), random);
+            if (answer.length() >= min && answer.length() <= max) {
+                return answer;
+            }
+        }
+        return null;
+    }
+
+    private static IllegalArgumentException lengthMismatch(StringConstraints sc) {
+        return new IllegalArgumentException("Pattern " + sc.getPattern() + " rarely produces a string of "
+                + sc.getMinLength() + " to " + sc.getMaxLength() + " characters");
+    }
+
+    // Generates a string for a simple regex. Unsupported syntax produces a string that won't match, which
+    // validate() catches.
+    static String generatePattern(String pattern, Random random) {
+        StringBuilder builder = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            // Parse one atom into the set of characters it can produce.
+            String choices;
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                char escaped = pattern.charAt(i + 1);
+                choices = escaped == 'd' ? "0123456789" : escaped == 'w' ? WORD_CHARS : String.valueOf(escaped);
+                i += 2;
+            } else if (c == '[') {
+                int end = pattern.indexOf(']', i);
+                if (end < 0) {
+                    return builder.toString();
+                }
+                choices = characterClass(pattern.substring(i + 1, end));
+                i = end + 1;
+            } else if (c == '.') {
+                choices = WORD_CHARS;
+                i++;
+            } else {
+                choices = String.valueOf(c);
+                i++;
+            }
+
+            // Parse the quantifier, if any.
+            int minRepeat = 1;
+            int maxRepeat = 1;
+            if (i < pattern.length()) {
+                char q = pattern.charAt(i);
+                if (q == '{') {
+                    int end = pattern.indexOf('}', i);
+                    if (end < 0) {
+                        return builder.toString();
+                    }
+                    String[] bounds = pattern.substring(i + 1, end).split(",", -1);
+                    minRepeat = Integer.parseInt(bounds[0].trim());
+                    maxRepeat = bounds.length == 1 ? minRepeat : bounds[1].trim().isEmpty() ?
+                            minRepeat + UNBOUNDED_REPEAT_MAX : Integer.parseInt(bounds[1].trim());
+                    i = end + 1;
+                } else if (q == '?') {
+                    minRepeat = 0;
+                    i++;
+                } else if (q == '+') {
+                    maxRepeat = UNBOUNDED_REPEAT_MAX;
+                    i++;
+                } else if (q == '*') {
+                    minRepeat = 0;
+                    maxRepeat = UNBOUNDED_REPEAT_MAX;
+                    i++;
+                }
+            }
+            int repeat = minRepeat + random.nextInt(maxRepeat - minRepeat + 1);
+            for (int r = 0; r < repeat; r++) {
+                builder.append(choices.charAt(random.nextInt(choices.length())));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String characterClass(String body) {
+        StringBuilder chars = new StringBuilder();
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\\' && i + 1 < body.length()) {
+                char escaped = body.charAt(++i);
+                chars.append(escaped == 'd' ? "0123456789" : escaped == 'w' ? WORD_CHARS : String.valueOf(escaped));
+            } else if (i + 2 < body.length() && body.charAt(i + 1) == '-') {
+                for (char r = c; r <= body.charAt(i + 2); r++) {
+                    chars.append(r);
+                }
+                i += 2;
+            } else {
+                chars.append(c);
+            }
+        }
+        return chars.toString();
+    }
+}
@@ -0,0 +1,312 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.joda.time.DateTime;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.model.Survey;
+
+/**
+ * Two-tier cache of published survey versions. A published (guid, createdOn) version never changes, so once fetched
+ * it is kept in an in-memory LRU and in a gzipped JSON file on disk, and is never revalidated. The only lookup that
+ * can change is "the published version of this guid", so that mapping is held for a short TTL and then refetched.
+ * Unpublished versions can still be edited and are always read from the server.
+ *
+ * <p>Server fetches run outside the cache's lock, and concurrent misses on the same key share one fetch, so a cold
+ * miss only holds up the callers waiting for that key.</p>
+ */
+public class SurveyCache {
+
+    private final SurveysApi surveysApi;
+    private final File directory;
+    private final long publishedTtlMillis;
+    private final Map<String, CachedSurvey> memory;
+    private final Map<String, PublishedVersion> publishedVersions = new HashMap<>();
+    private final ConcurrentMap<String, FutureTask<Survey>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sharedFetches = new AtomicLong();
+    private final AtomicLong publishedLookupHits = new AtomicLong();
+    private final AtomicLong publishedLookupMisses = new AtomicLong();
+    private final AtomicLong bytesFetched = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * @param directory
+     *         directory for the on-disk tier; it is created if it does not exist, and can be shared between runs
+     * @param maxInMemory
+     *         number of survey versions kept in memory before the least recently used is evicted to disk only
+     * @param publishedTtlMillis
+     *         how long the guid-to-published-version mapping is trusted
+     */
+    public SurveyCache(SurveysApi surveysApi, File directory, final int maxInMemory, long publishedTtlMillis) {
+        checkNotNull(surveysApi);
+        checkNotNull(directory);
+        checkArgument(maxInMemory > 0);
+        checkArgument(directory.isDirectory() || directory.mkdirs(), "Cannot create cache directory " + directory);
+        this.surveysApi = surveysApi;
+        this.directory = directory;
+        this.publishedTtlMillis = publishedTtlMillis;
+        this.memory = new LinkedHashMap<String, CachedSurvey>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSurvey> eldest) {
+                return size() > maxInMemory;
+            }
+        };
+    }
+
+    public Survey getSurvey(final String guid, final DateTime createdOn) throws Exception {
+        final String key = key(guid, createdOn);
+        Survey survey = getCachedSynchronized(key);
+        if (survey != null) {
+            return survey;
+        }
+        return fetchOnce(key, new Callable<Survey>() {
+            @Override
+            public Survey call() throws Exception {
+                // Another fetch of this key may have finished between the lookup above and this one starting.
+                Survey survey = getCachedSynchronized(key);
+                if (survey != null) {
+                    return survey;
+                }
+                misses.incrementAndGet();
+                survey = surveysApi.getSurvey(guid, createdOn).execute().body();
+                cache(key, survey);
+                return survey;
+            }
+        });
+    }
+
+    public Survey getPublishedSurveyVersion(final String guid) throws Exception {
+        Survey survey = getPublishedCached(guid);
+        if (survey != null) {
+            return survey;
+        }
+        return fetchOnce("published-" + guid, new Callable<Survey>() {
+            @Override
+            public Survey call() throws Exception {
+                Survey survey = getPublishedCached(guid);
+                if (survey != null) {
+                    return survey;
+                }
+                publishedLookupMisses.incrementAndGet();
+                misses.incrementAndGet();
+                survey = surveysApi.getPublishedSurveyVersion(guid).execute().body();
+                String key = key(survey.getGuid(), survey.getCreatedOn());
+                cache(key, survey);
+                synchronized (SurveyCache.this) {
+                    publishedVersions.put(guid, new PublishedVersion(key, System.currentTimeMillis()));
+                }
+                return survey;
+            }
+        });
+    }
+
+    /** Forgets the published version of a guid, e.g. after publishing a newer version of it. */
+    public synchronized void invalidatePublished(String guid) {
+        publishedVersions.remove(guid);
+    }
+
+    /** Versions served from memory. */
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    /** Versions served from the on-disk tier (and promoted back into memory). */
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /** Requests that had to go to the server. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** Misses that waited on another caller's fetch of the same key instead of going to the server. */
+    public long getSharedFetches() {
+        return sharedFetches.get();
+    }
+
+    /** getPublishedSurveyVersion() calls answered without the server. */
+    public long getPublishedLookupHits() {
+        return publishedLookupHits.get();
+    }
+
+    public long getPublishedLookupMisses() {
+        return publishedLookupMisses.get();
+    }
+
+    /** Uncompressed JSON bytes of surveys downloaded from the server. */
+    public long getBytesFetched() {
+        return bytesFetched.get();
+    }
+
+    /** Uncompressed JSON bytes of surveys that were served from either tier instead of being downloaded again. */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public String summary() {
+        return String.format("survey cache: memoryHits=%d, diskHits=%d, misses=%d, sharedFetches=%d, "
+                + "publishedLookupHits=%d, publishedLookupMisses=%d, bytesFetched=%d, bytesSaved=%d",
+                getMemoryHits(), getDiskHits(), getMisses(), getSharedFetches(), getPublishedLookupHits(),
+                getPublishedLookupMisses(), getBytesFetched(), getBytesSaved());
+    }
+
+    /**
+     * Runs the fetch unless one for the same key is already running, in which case this waits for that one's result
+     * (or exception) instead.
+     */
+    private Survey fetchOnce(String key, Callable<Survey> fetch) throws Exception {
+        FutureTask<Survey> task = new FutureTask<>(fetch);
+        FutureTask<Survey> running = inFlight.putIfAbsent(key, task);
+        if (running != null) {
+            sharedFetches.incrementAndGet();
+            return await(running);
+        }
+        try {
+            task.run();
+            return await(task);
+        } finally {
+            inFlight.remove(key, task);
+        }
+    }
+
+    private static Survey await(FutureTask<Survey> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw e;
+        }
+    }
+
+    private synchronized Survey getCachedSynchronized(String key) throws IOException {
+        return getCached(key);
+    }
+
+    private synchronized Survey getPublishedCached(String guid) throws IOException {
+        PublishedVersion published = publishedVersions.get(guid);
+        if (published != null && System.currentTimeMillis() - published.fetchedOn < publishedTtlMillis) {
+            Survey survey = getCached(published.key);
+            if (survey != null) {
+                publishedLookupHits.incrementAndGet();
+                return survey;
+            }
+        }
+        return null;
+    }
+
+    private Survey getCached(String key) throws IOException {
+        CachedSurvey cached = memory.get(key);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            bytesSaved.addAndGet(cached.bytes);
+            return cached.survey;
+        }
+        File file = file(key);
+        if (file.exists()) {
+            Survey survey;
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(new FileInputStream(file)),
+                    StandardCharsets.UTF_8)) {
+                survey = RestUtils.GSON.fromJson(reader, Survey.class);
+            }
+            int bytes = RestUtils.GSON.toJson(survey).getBytes(StandardCharsets.UTF_8).length;
+            memory.put(key, new CachedSurvey(survey, bytes));
+            diskHits.incrementAndGet();
+            bytesSaved.addAndGet(bytes);
+            return survey;
+        }
+        return null;
+    }
+
+    private void cache(String key, Survey survey) throws IOException {
+        String json = RestUtils.GSON.toJson(survey);
+        int bytes = json.getBytes(StandardCharsets.UTF_8).length;
+        bytesFetched.addAndGet(bytes);
+        if (!Boolean.TRUE.equals(survey.getPublished())) {
+            return;
+        }
+        synchronized (this) {
+            memory.put(key, new CachedSurvey(survey, bytes));
+        }
+
+        // Write to a uniquely named temp file and rename, so a concurrent writer of the same key (in this run or
+        // another one sharing the directory) never interleaves with this one and readers never see a half-written
+        // entry.
+        File temp = File.createTempFile(key + "-", ".tmp", directory);
+        try {
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(temp)),
+                    StandardCharsets.UTF_8)) {
+                writer.write(json);
+            }
+            // If the rename fails, another writer already put the same immutable version in place.
+            temp.renameTo(file(key));
+        } finally {
+            if (temp.exists()) {
+                temp.delete();
+            }
+        }
+    }
+
+    private File file(String key) {
+        return new File(directory, key + ".json.gz");
+    }
+
+    private static String key(String guid, DateTime createdOn) {
+        return guid + "-" + createdOn.getMillis();
+    }
+
+    private static final class CachedSurvey {
+        private final Survey survey;
+        private final int bytes;
+
+        CachedSurvey(Survey survey, int bytes) {
+            this.survey = survey;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class PublishedVersion {
+        private final String key;
+        private final long fetchedOn;
+
+        PublishedVersion(String key, long fetchedOn) {
+            this.key = key;
+            this.fetchedOn = fetchedOn;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.Files;
+
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Verifies that {@link SurveyCache} only serves immutable (published) versions locally, that the on-disk tier
+ * survives a new cache instance, and replays a survey-heavy read workload to report the hit rate and bytes saved.
+ */
+@Category(LoadTest.class)
+public class SurveyCacheTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SurveyCacheTest.class);
+
+    private static final int READS = LoadTestHelper.getIntProperty("load.reads", 100);
+    private static final int QUESTIONS_PER_TYPE = LoadTestHelper.getIntProperty("load.surveySize", 20);
+    private static final long PUBLISHED_TTL_MILLIS = 60000;
+
+    private TestUser developer;
+    private SurveysApi surveysApi;
+    private File directory;
+    private ResourceCleaner cleaner;
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(SurveyCacheTest.class, false, Role.DEVELOPER);
+        surveysApi = developer.getClient(SurveysApi.class);
+        directory = Files.createTempDir();
+        cleaner = new ResourceCleaner(TestUserHelper.getSignedInAdmin());
+    }
+
+    @After
+    public void after() throws Exception {
+        try {
+            cleaner.cleanup();
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+            if (developer != null) {
+                developer.signOutAndDeleteUser();
+            }
+        }
+    }
+
+    @Test
+    public void publishedVersionIsServedFromMemoryThenDisk() throws Exception {
+        GuidCreatedOnVersionHolder keys = createSurvey(TestSurvey.getSurvey(SurveyCacheTest.class), true);
+
+        SurveyCache cache = new SurveyCache(surveysApi, directory, 10, PUBLISHED_TTL_MILLIS);
+        Survey survey = cache.getSurvey(keys.getGuid(), keys.getCreatedOn());
+        Survey cached = cache.getSurvey(keys.getGuid(), keys.getCreatedOn());
+        assertEquals(survey, cached);
+        assertEquals(1L, cache.getMisses());
+        assertEquals(1L, cache.getMemoryHits());
+
+        // A new instance (a new run, or an app restart) still has the version on disk.
+        SurveyCache restarted = new SurveyCache(surveysApi, directory, 10, PUBLISHED_TTL_MILLIS);
+        Survey fromDisk = restarted.getSurvey(keys.getGuid(), keys.getCreatedOn());
+        assertEquals(0L, restarted.getMisses());
+        assertEquals(1L, restarted.getDiskHits());
+        assertEquals(survey.getGuid(), fromDisk.getGuid());
+        assertEquals(survey.getCreatedOn(), fromDisk.getCreatedOn());
+        assertEquals(survey.getElements().size(), fromDisk.getElements().size());
+    }
+
+    @Test
+    public void unpublishedVersionIsAlwaysFetched() throws Exception {
+        GuidCreatedOnVersionHolder keys = createSurvey(TestSurvey.getSurvey(SurveyCacheTest.class), false);
+
+        SurveyCache cache = new SurveyCache(surveysApi, directory, 10, PUBLISHED_TTL_MILLIS);
+        cache.getSurvey(keys.getGuid(), keys.getCreatedOn());
+        cache.getSurvey(keys.getGuid(), keys.getCreatedOn());
+        assertEquals(2L, cache.getMisses());
+        assertEquals(0L, cache.getMemoryHits() + cache.getDiskHits());
+    }
+
+    @Test
+    public void publishedLookupFollowsNewVersionAfterInvalidation() throws Exception {
+        GuidCreatedOnVersionHolder keys = createSurvey(TestSurvey.getSurvey(SurveyCacheTest.class), true);
+
+        SurveyCache cache = new SurveyCache(surveysApi, directory, 10, PUBLISHED_TTL_MILLIS);
+        Survey published = cache.getPublishedSurveyVersion(keys.getGuid());
+        assertEquals(keys.getCreatedOn(), published.getCreatedOn());
+        cache.getPublishedSurveyVersion(keys.getGuid());
+        assertEquals(1L, cache.getPublishedLookupHits());
+
+        GuidCreatedOnVersionHolder laterKeys = surveysApi.versionSurvey(keys.getGuid(), keys.getCreatedOn())
+                .execute().body();
+        cleaner.registerSurvey(laterKeys);
+        surveysApi.publishSurvey(laterKeys.getGuid(), laterKeys.getCreatedOn(), false).execute();
+        cache.invalidatePublished(keys.getGuid());
+
+        Survey later = cache.getPublishedSurveyVersion(keys.getGuid());
+        assertEquals(laterKeys.getCreatedOn(), later.getCreatedOn());
+        assertNotEquals(published.getCreatedOn(), later.getCreatedOn());
+        assertEquals(2L, cache.getPublishedLookupMisses());
+
+        // The first version is immutable, so it is still served locally.
+        cache.getSurvey(keys.getGuid(), keys.getCreatedOn());
+        assertEquals(2L, cache.getMisses());
+    }
+
+    @Test
+    public void replaySurveyReads() throws Exception {
+        Survey large = TestSurvey.getLargeSurvey(SurveyCacheTest.class, QUESTIONS_PER_TYPE, 20,
+                QUESTIONS_PER_TYPE);
+        GuidCreatedOnVersionHolder keys = createSurvey(large, true);
+
+        LatencyRecorder uncached = new LatencyRecorder("getPublishedSurveyVersion, uncached");
+        LatencyRecorder cached = new LatencyRecorder("getPublishedSurveyVersion, cached");
+        SurveyCache cache = new SurveyCache(surveysApi, directory, 10, PUBLISHED_TTL_MILLIS);
+        for (int i = 0; i < READS; i++) {
+            uncached.time(() -> surveysApi.getPublishedSurveyVersion(keys.getGuid()).execute().body());
+            cached.time(() -> cache.getPublishedSurveyVersion(keys.getGuid()));
+        }
+        uncached.log();
+        cached.log();
+        LOG.info(cache.summary());
+        assertEquals(READS, cache.getPublishedLookupHits() + cache.getPublishedLookupMisses());
+    }
+
+    private GuidCreatedOnVersionHolder createSurvey(Survey survey, boolean publish) throws Exception {
+        GuidCreatedOnVersionHolder keys = surveysApi.createSurvey(survey).execute().body();
+        cleaner.registerSurvey(keys);
+        if (publish) {
+            surveysApi.publishSurvey(keys.getGuid(), keys.getCreatedOn(), false).execute();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,324 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalTime;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.BooleanConstraints;
+import org.sagebionetworks.bridge.rest.model.Constraints;
+import org.sagebionetworks.bridge.rest.model.DateConstraints;
+import org.sagebionetworks.bridge.rest.model.DateTimeConstraints;
+import org.sagebionetworks.bridge.rest.model.DecimalConstraints;
+import org.sagebionetworks.bridge.rest.model.DurationConstraints;
+import org.sagebionetworks.bridge.rest.model.IntegerConstraints;
+import org.sagebionetworks.bridge.rest.model.MultiValueConstraints;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.rest.model.SurveyElement;
+import org.sagebionetworks.bridge.rest.model.SurveyQuestion;
+import org.sagebionetworks.bridge.rest.model.SurveyRule;
+import org.sagebionetworks.bridge.rest.model.TimeConstraints;
+
+/**
+ * Runs a survey in-process for a simulated participant. The survey is compiled once: each question's rules become
+ * predicates with a resolved skip target, and constraints are checked for answer generation. A run then walks the
+ * elements, answers each question with {@link SurveyAnswerGenerator} (or declines it), and follows the first rule
+ * that matches the answer. The answers can be packaged as an iOS-style survey upload (one JSON file per answer plus
+ * info.json, zipped), like the legacy-survey upload test fixture.
+ */
+public class SurveyRunner {
+
+    private final Survey survey;
+    private final List<Step> steps = new ArrayList<>();
+
+    public SurveyRunner(Survey survey) {
+        checkNotNull(survey);
+        this.survey = survey;
+
+        Map<String, Integer> indexById = new HashMap<>();
+        List<SurveyElement> elements = survey.getElements();
+        for (int i = 0; i < elements.size(); i++) {
+            indexById.put(elements.get(i).getIdentifier(), i);
+        }
+        for (int i = 0; i < elements.size(); i++) {
+            SurveyElement element = elements.get(i);
+            if (!(element instanceof SurveyQuestion)) {
+                steps.add(new Step(element.getIdentifier(), null, new ArrayList<>()));
+                continue;
+            }
+            Constraints constraints = ((SurveyQuestion)element).getConstraints();
+            SurveyAnswerGenerator.validate(constraints);
+
+            List<CompiledRule> rules = new ArrayList<>();
+            if (constraints.getRules() != null) {
+                for (SurveyRule rule : constraints.getRules()) {
+                    Integer target = indexById.get(rule.getSkipTo());
+                    checkArgument(target != null, "Rule on %s skips to unknown element %s", element.getIdentifier(),
+                            rule.getSkipTo());
+                    // Skipping backwards could loop forever.
+                    checkArgument(target > i, "Rule on %s skips backwards to %s", element.getIdentifier(),
+                            rule.getSkipTo());
+                    rules.add(new CompiledRule(compile(element.getIdentifier(), constraints, rule), target));
+                }
+            }
+            steps.add(new Step(element.getIdentifier(), constraints, rules));
+        }
+    }
+
+    /**
+     * Runs the survey once.
+     *
+     * @param declineRate
+     *         probability (0 to 1) that the participant declines to answer a question
+     */
+    public Response run(Random random, double declineRate) {
+        Response response = new Response();
+        int i = 0;
+        while (i < steps.size()) {
+            Step step = steps.get(i);
+            int next = i + 1;
+            if (step.constraints != null) {
+                Object answer = random.nextDouble() < declineRate ? null :
+                        SurveyAnswerGenerator.generate(step.constraints, random);
+                response.answers.put(step.identifier, answer);
+                for (CompiledRule rule : step.rules) {
+                    if (rule.predicate.test(answer)) {
+                        next = rule.target;
+                        break;
+                    }
+                }
+            }
+            for (int skipped = i + 1; skipped < next; skipped++) {
+                response.skipped.add(steps.get(skipped).identifier);
+            }
+            i = next;
+        }
+        return response;
+    }
+
+    /** Builds the files of a survey upload: one JSON file per answered question, plus info.json. */
+    public Map<String, byte[]> toUploadFiles(Response response, String schemaId, long schemaRevision,
+            DateTime startedOn) {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        JsonArray fileList = new JsonArray();
+        DateTime time = startedOn;
+        for (Step step : steps) {
+            if (!response.answers.containsKey(step.identifier) || response.answers.get(step.identifier) == null) {
+                continue;
+            }
+            DateTime endedOn = time.plusSeconds(2);
+            JsonObject answerJson = new JsonObject();
+            answerJson.addProperty("item", step.identifier);
+            answerJson.addProperty("startDate", time.toString());
+            answerJson.addProperty("endDate", endedOn.toString());
+            addAnswer(answerJson, step.constraints, response.answers.get(step.identifier));
+
+            String filename = step.identifier + ".json";
+            files.put(filename, RestUtils.GSON.toJson(answerJson).getBytes(StandardCharsets.UTF_8));
+            JsonObject fileInfo = new JsonObject();
+            fileInfo.addProperty("filename", filename);
+            fileInfo.addProperty("timestamp", endedOn.toString());
+            fileList.add(fileInfo);
+            time = endedOn;
+        }
+        JsonObject info = new JsonObject();
+        info.add("files", fileList);
+        info.addProperty("item", schemaId);
+        info.addProperty("schemaRevision", schemaRevision);
+        info.addProperty("appVersion", "version 1.0.0, build 1");
+        info.addProperty("phoneInfo", "Integration Tests");
+        files.put("info.json", RestUtils.GSON.toJson(info).getBytes(StandardCharsets.UTF_8));
+        return files;
+    }
+
+    /** Zips upload files, ready to be encrypted and uploaded. */
+    public static byte[] zip(Map<String, byte[]> files) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                zip.putNextEntry(new ZipEntry(file.getKey()));
+                zip.write(file.getValue());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    public Survey getSurvey() {
+        return survey;
+    }
+
+    private static void addAnswer(JsonObject json, Constraints constraints, Object answer) {
+        if (constraints instanceof BooleanConstraints) {
+            json.addProperty("questionTypeName", "Boolean");
+            json.addProperty("booleanAnswer", (Boolean)answer);
+        } else if (constraints instanceof IntegerConstraints) {
+            json.addProperty("questionTypeName", "Integer");
+            json.addProperty("numericAnswer", (Number)answer);
+        } else if (constraints instanceof DecimalConstraints) {
+            json.addProperty("questionTypeName", "Decimal");
+            json.addProperty("numericAnswer", (Number)answer);
+        } else if (constraints instanceof DurationConstraints) {
+            json.addProperty("questionTypeName", "TimeInterval");
+            json.addProperty("intervalAnswer", (Number)answer);
+        } else if (constraints instanceof DateConstraints) {
+            json.addProperty("questionTypeName", "Date");
+            json.addProperty("dateAnswer", answer.toString());
+        } else if (constraints instanceof DateTimeConstraints) {
+            json.addProperty("questionTypeName", "DateAndTime");
+            json.addProperty("dateAnswer", answer.toString());
+        } else if (constraints instanceof TimeConstraints) {
+            json.addProperty("questionTypeName", "TimeOfDay");
+            json.addProperty("dateComponentsAnswer", ((LocalTime)answer).toString("HH:mm:ss"));
+        } else if (constraints instanceof MultiValueConstraints) {
+            boolean multiple = Boolean.TRUE.equals(((MultiValueConstraints)constraints).getAllowMultiple());
+            json.addProperty("questionTypeName", multiple ? "MultipleChoice" : "SingleChoice");
+            JsonArray choices = new JsonArray();
+            for (Object choice : (Collection<?>)answer) {
+                choices.add(new JsonPrimitive(choice.toString()));
+            }
+            json.add("choiceAnswers", choices);
+        } else {
+            json.addProperty("questionTypeName", "Text");
+            json.addProperty("textAnswer", answer.toString());
+        }
+    }
+
+    // Turns a rule into a predicate on the answer (null means the question was declined). Numbers, dates, date-times
+    // and times are parsed into the question's type and compared as values (date-times as instants, so offsets
+    // don't matter), choice lists by membership (EQ and NE only), and everything else as strings. Rule values are
+    // parsed here, so a bad survey fails when it's compiled rather than partway through a run.
+    static Predicate<Object> compile(String identifier, Constraints constraints, SurveyRule rule) {
+        checkArgument(rule.getOperator() != null, "Rule on %s has no operator", identifier);
+        switch (rule.getOperator()) {
+            case ALWAYS:
+                return answer -> true;
+            case DE:
+                return answer -> answer == null;
+            default:
+                break;
+        }
+        String value = rule.getValue();
+        checkArgument(value != null, "Rule %s on %s has no value", rule.getOperator(), identifier);
+        Comparable<?> typedValue;
+        try {
+            typedValue = parse(constraints, value);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Rule " + rule.getOperator() + " on " + identifier
+                    + " has a value \"" + value + "\" that doesn't fit the question's type", ex);
+        }
+        switch (rule.getOperator()) {
+            case EQ:
+                return answer -> answer != null && compare(constraints, answer, value, typedValue) == 0;
+            case NE:
+                return answer -> answer != null && compare(constraints, answer, value, typedValue) != 0;
+            case LT:
+                return answer -> isOrdered(answer) && compare(constraints, answer, value, typedValue) < 0;
+            case GT:
+                return answer -> isOrdered(answer) && compare(constraints, answer, value, typedValue) > 0;
+            case LE:
+                return answer -> isOrdered(answer) && compare(constraints, answer, value, typedValue) <= 0;
+            case GE:
+                return answer -> isOrdered(answer) && compare(constraints, answer, value, typedValue) >= 0;
+            default:
+                throw new IllegalArgumentException("Unsupported rule operator " + rule.getOperator() + " on "
+                        + identifier);
+        }
+    }
+
+    // Choice lists (and declined answers) have no ordering.
+    private static boolean isOrdered(Object answer) {
+        return answer != null && !(answer instanceof Collection);
+    }
+
+    // Parses a rule value (or an answer given as a string) into the question's value type, or returns null for
+    // questions whose answers are compared as strings. Throws IllegalArgumentException (NumberFormatException is
+    // one) if the value doesn't parse.
+    private static Comparable<?> parse(Constraints constraints, String value) {
+        if (constraints instanceof IntegerConstraints || constraints instanceof DecimalConstraints
+                || constraints instanceof DurationConstraints) {
+            return new BigDecimal(value);
+        } else if (constraints instanceof DateConstraints) {
+            return LocalDate.parse(value);
+        } else if (constraints instanceof DateTimeConstraints) {
+            return DateTime.parse(value);
+        } else if (constraints instanceof TimeConstraints) {
+            return LocalTime.parse(value);
+        }
+        return null;
+    }
+
+    // For choice lists, returns 0 if the list contains the value, and 1 otherwise. typedValue is the value parsed by
+    // parse(), and null if the question's answers are compared as strings.
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static int compare(Constraints constraints, Object answer, String value, Comparable typedValue) {
+        if (answer instanceof Collection) {
+            return ((Collection<?>)answer).contains(value) ? 0 : 1;
+        }
+        if (typedValue == null) {
+            return answer.toString().compareTo(value);
+        }
+        Comparable typedAnswer = typedValue.getClass().isInstance(answer) ? (Comparable)answer :
+                parse(constraints, answer.toString());
+        return typedAnswer.compareTo(typedValue);
+    }
+
+    /** The answers from one run, in the order asked. A declined question maps to null. */
+    public static final class Response {
+        private final Map<String, Object> answers = new LinkedHashMap<>();
+        private final List<String> skipped = new ArrayList<>();
+
+        public Map<String, Object> getAnswers() {
+            return answers;
+        }
+
+        /** Elements that were skipped by a rule. */
+        public List<String> getSkipped() {
+            return skipped;
+        }
+    }
+
+    private static final class Step {
+        private final String identifier;
+        // Null for info screens.
+        private final Constraints constraints;
+        private final List<CompiledRule> rules;
+
+        Step(String identifier, Constraints constraints, List<CompiledRule> rules) {
+            this.identifier = identifier;
+            this.constraints = constraints;
+            this.rules = rules;
+        }
+    }
+
+    private static final class CompiledRule {
+        private final Predicate<Object> predicate;
+        private final int target;
+
+        CompiledRule(Predicate<Object> predicate, int target) {
+            this.predicate = predicate;
+            this.target = target;
+        }
+    }
+}
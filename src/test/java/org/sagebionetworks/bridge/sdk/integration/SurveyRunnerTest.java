@@ -0,0 +1,321 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.Lists;
+import com.google.gson.JsonObject;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalTime;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.model.BooleanConstraints;
+import org.sagebionetworks.bridge.rest.model.Constraints;
+import org.sagebionetworks.bridge.rest.model.DataType;
+import org.sagebionetworks.bridge.rest.model.DateConstraints;
+import org.sagebionetworks.bridge.rest.model.DateTimeConstraints;
+import org.sagebionetworks.bridge.rest.model.IntegerConstraints;
+import org.sagebionetworks.bridge.rest.model.MultiValueConstraints;
+import org.sagebionetworks.bridge.rest.model.Operator;
+import org.sagebionetworks.bridge.rest.model.StringConstraints;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.rest.model.SurveyElement;
+import org.sagebionetworks.bridge.rest.model.SurveyQuestion;
+import org.sagebionetworks.bridge.rest.model.SurveyQuestionOption;
+import org.sagebionetworks.bridge.rest.model.SurveyRule;
+import org.sagebionetworks.bridge.rest.model.TimeConstraints;
+import org.sagebionetworks.bridge.rest.model.UIHint;
+
+/**
+ * {@link SurveyRunner} runs entirely in-process, so these tests don't need a server. The throughput scenario is a
+ * load test.
+ */
+public class SurveyRunnerTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SurveyRunnerTest.class);
+
+    private static final int RUNS = 200;
+
+    @Test
+    public void answersSatisfyConstraints() {
+        Survey survey = TestSurvey.getLargeSurvey(SurveyRunnerTest.class, 3, 5, 6);
+        SurveyRunner runner = new SurveyRunner(survey);
+        Random random = new Random(42);
+
+        for (int i = 0; i < RUNS; i++) {
+            Map<String, Object> answers = runner.run(random, 0.0).getAnswers();
+            for (SurveyElement element : survey.getElements()) {
+                Object answer = answers.get(element.getIdentifier());
+                if (answer == null) {
+                    // Skipped by a rule.
+                    continue;
+                }
+                Constraints constraints = ((SurveyQuestion)element).getConstraints();
+                if (constraints instanceof IntegerConstraints) {
+                    IntegerConstraints ic = (IntegerConstraints)constraints;
+                    long value = (Long)answer;
+                    assertTrue(value >= ic.getMinValue() && value <= ic.getMaxValue());
+                } else if (constraints instanceof StringConstraints) {
+                    String pattern = ((StringConstraints)constraints).getPattern();
+                    assertTrue(answer + " should match " + pattern, Pattern.matches(pattern, (String)answer));
+                } else if (constraints instanceof MultiValueConstraints) {
+                    List<String> values = Lists.newArrayList();
+                    for (SurveyQuestionOption option : ((MultiValueConstraints)constraints).getEnumeration()) {
+                        values.add(option.getValue());
+                    }
+                    assertTrue(values.containsAll((List<?>)answer));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matchingRuleSkipsToTarget() {
+        // q1 can only be answered with 5, so the rule always fires and q2 is never asked.
+        IntegerConstraints ic = new IntegerConstraints();
+        ic.setDataType(DataType.INTEGER);
+        ic.setMinValue(5);
+        ic.setMaxValue(5);
+        ic.setRules(Lists.newArrayList(rule(Operator.EQ, "5", "q3")));
+
+        SurveyRunner runner = new SurveyRunner(survey(question("q1", ic), question("q2", booleanConstraints()),
+                question("q3", booleanConstraints())));
+        SurveyRunner.Response response = runner.run(new Random(), 0.0);
+
+        assertEquals(Lists.newArrayList("q1", "q3"), Lists.newArrayList(response.getAnswers().keySet()));
+        assertEquals(Lists.newArrayList("q2"), response.getSkipped());
+    }
+
+    @Test
+    public void declinedRuleFiresOnlyWhenDeclined() {
+        BooleanConstraints bc = booleanConstraints();
+        bc.setRules(Lists.newArrayList(rule(Operator.DE, null, "q3")));
+        SurveyRunner runner = new SurveyRunner(survey(question("q1", bc), question("q2", booleanConstraints()),
+                question("q3", booleanConstraints())));
+
+        SurveyRunner.Response declined = runner.run(new Random(), 1.0);
+        assertNull(declined.getAnswers().get("q1"));
+        assertEquals(Lists.newArrayList("q2"), declined.getSkipped());
+
+        SurveyRunner.Response answered = runner.run(new Random(), 0.0);
+        assertTrue(answered.getAnswers().containsKey("q2"));
+        assertTrue(answered.getSkipped().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ruleToUnknownElementIsRejected() {
+        BooleanConstraints bc = booleanConstraints();
+        bc.setRules(Lists.newArrayList(rule(Operator.EQ, "true", "not-a-question")));
+        new SurveyRunner(survey(question("q1", bc)));
+    }
+
+    @Test
+    public void nonNumericValueOnNumericQuestionIsRejected() {
+        IntegerConstraints ic = new IntegerConstraints();
+        ic.setDataType(DataType.INTEGER);
+        ic.setMinValue(0);
+        ic.setMaxValue(10);
+        ic.setRules(Lists.newArrayList(rule(Operator.LT, "five", "q2")));
+        try {
+            new SurveyRunner(survey(question("q1", ic), question("q2", booleanConstraints())));
+            fail("Should have thrown exception");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("q1") && ex.getMessage().contains("five"));
+        }
+    }
+
+    @Test
+    public void timeRulesCompareTimesOfDay() {
+        TimeConstraints tc = new TimeConstraints();
+        tc.setDataType(DataType.TIME);
+
+        // Answers render as "10:00:00.000", so a string comparison would never match "10:00".
+        Predicate<Object> eq = SurveyRunner.compile("q1", tc, rule(Operator.EQ, "10:00", "q2"));
+        assertTrue(eq.test(new LocalTime(10, 0)));
+        assertFalse(eq.test(new LocalTime(10, 1)));
+
+        Predicate<Object> lt = SurveyRunner.compile("q1", tc, rule(Operator.LT, "09:30", "q2"));
+        assertTrue(lt.test(new LocalTime(9, 29)));
+        assertFalse(lt.test(new LocalTime(9, 30)));
+        assertTrue(lt.test("09:00"));
+    }
+
+    @Test
+    public void dateTimeRulesCompareInstants() {
+        DateTimeConstraints dtc = new DateTimeConstraints();
+        dtc.setDataType(DataType.DATETIME);
+        DateTime noonUtc = DateTime.parse("2017-01-01T12:00:00.000Z");
+
+        // Same instant, different offset.
+        assertTrue(SurveyRunner.compile("q1", dtc, rule(Operator.EQ, "2017-01-01T04:00:00-08:00", "q2"))
+                .test(noonUtc));
+        // 10:00-08:00 is 18:00Z, so noon UTC is earlier, even though "12:00" sorts after "10:00".
+        Predicate<Object> lt = SurveyRunner.compile("q1", dtc, rule(Operator.LT, "2017-01-01T10:00:00-08:00", "q2"));
+        assertTrue(lt.test(noonUtc));
+        assertFalse(lt.test(noonUtc.plusHours(6)));
+        assertTrue(lt.test(noonUtc.withZone(DateTimeZone.forOffsetHours(9))));
+    }
+
+    @Test
+    public void dateRulesCompareDates() {
+        DateConstraints dc = new DateConstraints();
+        dc.setDataType(DataType.DATE);
+
+        assertTrue(SurveyRunner.compile("q1", dc, rule(Operator.EQ, "2017-02-03", "q2"))
+                .test(new LocalDate(2017, 2, 3)));
+        Predicate<Object> ge = SurveyRunner.compile("q1", dc, rule(Operator.GE, "2017-02-03", "q2"));
+        assertTrue(ge.test(new LocalDate(2017, 2, 3)));
+        assertTrue(ge.test(new LocalDate(2018, 1, 1)));
+        assertFalse(ge.test(new LocalDate(2017, 2, 2)));
+    }
+
+    @Test
+    public void unparseableTimeValueIsRejected() {
+        TimeConstraints tc = new TimeConstraints();
+        tc.setDataType(DataType.TIME);
+        tc.setRules(Lists.newArrayList(rule(Operator.GT, "noon", "q2")));
+        try {
+            new SurveyRunner(survey(question("q1", tc), question("q2", booleanConstraints())));
+            fail("Should have thrown exception");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("q1") && ex.getMessage().contains("noon"));
+        }
+    }
+
+    @Test
+    public void patternAnswersHonourLength() {
+        StringConstraints sc = new StringConstraints();
+        sc.setDataType(DataType.STRING);
+        sc.setPattern("[a-z]+");
+        sc.setMinLength(3);
+        sc.setMaxLength(5);
+        SurveyAnswerGenerator.validate(sc);
+
+        Random random = new Random(42);
+        for (int i = 0; i < RUNS; i++) {
+            String answer = (String)SurveyAnswerGenerator.generate(sc, random);
+            assertTrue(answer, answer.length() >= 3 && answer.length() <= 5);
+        }
+    }
+
+    @Test
+    public void datesAreNotInTheFutureUnlessAllowed() {
+        DateConstraints dc = new DateConstraints();
+        dc.setDataType(DataType.DATE);
+        dc.setLatestValue(LocalDate.now().plusYears(1));
+        DateTimeConstraints dtc = new DateTimeConstraints();
+        dtc.setDataType(DataType.DATETIME);
+        dtc.setLatestValue(DateTime.now().plusYears(1));
+
+        Random random = new Random(42);
+        for (int i = 0; i < RUNS; i++) {
+            assertFalse(((LocalDate)SurveyAnswerGenerator.generate(dc, random)).isAfter(LocalDate.now()));
+            assertFalse(((DateTime)SurveyAnswerGenerator.generate(dtc, random)).isAfterNow());
+        }
+
+        dc.setAllowFuture(true);
+        boolean sawFuture = false;
+        for (int i = 0; i < RUNS && !sawFuture; i++) {
+            sawFuture = ((LocalDate)SurveyAnswerGenerator.generate(dc, random)).isAfter(LocalDate.now());
+        }
+        assertTrue(sawFuture);
+    }
+
+    @Test
+    public void alwaysRuleSkipsWhetherAnsweredOrNot() {
+        BooleanConstraints bc = booleanConstraints();
+        bc.setRules(Lists.newArrayList(rule(Operator.ALWAYS, null, "q3")));
+        SurveyRunner runner = new SurveyRunner(survey(question("q1", bc), question("q2", booleanConstraints()),
+                question("q3", booleanConstraints())));
+
+        assertEquals(Lists.newArrayList("q2"), runner.run(new Random(), 0.0).getSkipped());
+        assertEquals(Lists.newArrayList("q2"), runner.run(new Random(), 1.0).getSkipped());
+    }
+
+    @Test
+    public void uploadFilesListEveryAnswer() throws Exception {
+        Survey survey = TestSurvey.getLargeSurvey(SurveyRunnerTest.class, 2, 5, 0);
+        SurveyRunner runner = new SurveyRunner(survey);
+        SurveyRunner.Response response = runner.run(new Random(7), 0.0);
+
+        Map<String, byte[]> files = runner.toUploadFiles(response, survey.getIdentifier(), 1L, DateTime.now());
+        assertEquals(survey.getElements().size() + 1, files.size());
+
+        JsonObject info = RestUtils.GSON.fromJson(new String(files.get("info.json"), StandardCharsets.UTF_8),
+                JsonObject.class);
+        assertEquals(survey.getIdentifier(), info.get("item").getAsString());
+        assertEquals(survey.getElements().size(), info.getAsJsonArray("files").size());
+
+        JsonObject answer = RestUtils.GSON.fromJson(new String(files.get("boolean_0.json"), StandardCharsets.UTF_8),
+                JsonObject.class);
+        assertEquals("Boolean", answer.get("questionTypeName").getAsString());
+        assertEquals(response.getAnswers().get("boolean_0"), answer.get("booleanAnswer").getAsBoolean());
+        assertFalse(SurveyRunner.zip(files).length == 0);
+    }
+
+    @Test
+    @Category(LoadTest.class)
+    public void simulatedParticipantThroughput() throws Exception {
+        int participants = LoadTestHelper.getIntProperty("load.participants", 10000);
+        Survey survey = TestSurvey.getLargeSurvey(SurveyRunnerTest.class, 10, 20, 20);
+        SurveyRunner runner = new SurveyRunner(survey);
+        Random random = new Random();
+
+        long start = System.currentTimeMillis();
+        long bytes = 0;
+        for (int i = 0; i < participants; i++) {
+            SurveyRunner.Response response = runner.run(random, 0.05);
+            bytes += SurveyRunner.zip(runner.toUploadFiles(response, survey.getIdentifier(), 1L,
+                    DateTime.now())).length;
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        LOG.info(String.format("%d simulated submissions of a %d question survey in %d ms (%.1f/s), %d bytes zipped",
+                participants, survey.getElements().size(), elapsed,
+                LoadTestHelper.ratePerSecond(participants, elapsed), bytes));
+    }
+
+    private static Survey survey(SurveyElement... elements) {
+        Survey survey = new Survey();
+        survey.setIdentifier(Tests.randomIdentifier(SurveyRunnerTest.class));
+        survey.setElements(Lists.newArrayList(elements));
+        return survey;
+    }
+
+    private static SurveyQuestion question(String identifier, Constraints constraints) {
+        SurveyQuestion question = new SurveyQuestion();
+        question.setIdentifier(identifier);
+        question.setUiHint(UIHint.TEXTFIELD);
+        question.setConstraints(constraints);
+        question.setType("SurveyQuestion");
+        return question;
+    }
+
+    private static BooleanConstraints booleanConstraints() {
+        BooleanConstraints bc = new BooleanConstraints();
+        bc.setDataType(DataType.BOOLEAN);
+        return bc;
+    }
+
+    private static SurveyRule rule(Operator operator, String value, String skipTo) {
+        SurveyRule rule = new SurveyRule();
+        rule.setOperator(operator);
+        rule.setValue(value);
+        rule.setSkipTo(skipTo);
+        return rule;
+    }
+}
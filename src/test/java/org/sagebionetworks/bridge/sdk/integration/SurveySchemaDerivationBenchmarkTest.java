@@ -0,0 +1,185 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.model.BooleanConstraints;
+import org.sagebionetworks.bridge.rest.model.Constraints;
+import org.sagebionetworks.bridge.rest.model.DataType;
+import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.StringConstraints;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.rest.model.SurveyElement;
+import org.sagebionetworks.bridge.rest.model.SurveyQuestion;
+import org.sagebionetworks.bridge.rest.model.UIHint;
+import org.sagebionetworks.bridge.rest.model.UploadSchema;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Publishing a survey derives (or updates) its upload schema, which is slow for large surveys. For each survey size,
+ * this publishes a first version and then a history of new versions, alternating compatible changes (a question is
+ * added, so the schema is edited in place) with incompatible ones (a question changes type, so the schema revision is
+ * bumped). Publish latency and the resulting schema revision are logged and appended to
+ * target/load-results/survey-schema-derivation.csv; use -Dload.label to tag the server version under test.
+ */
+@Category(LoadTest.class)
+public class SurveySchemaDerivationBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SurveySchemaDerivationBenchmarkTest.class);
+
+    private static final List<Integer> QUESTIONS_PER_TYPE = LoadTestHelper.getIntListProperty("load.surveySizes",
+            "1,10,25,50");
+    private static final int REVISIONS = LoadTestHelper.getIntProperty("load.revisions", 6);
+    // Every Nth revision is an incompatible change.
+    private static final int INCOMPATIBLE_EVERY_N_REVISIONS = 3;
+    // This question is toggled between boolean and string to force an incompatible change.
+    private static final String TOGGLED_QUESTION_ID = "boolean_0";
+
+    private static TestUser developer;
+    private static SurveysApi surveysApi;
+    private static UploadSchemasApi schemasApi;
+
+    private ResourceCleaner cleaner;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(SurveySchemaDerivationBenchmarkTest.class, false,
+                Role.DEVELOPER);
+        surveysApi = developer.getClient(SurveysApi.class);
+        schemasApi = developer.getClient(UploadSchemasApi.class);
+    }
+
+    @Before
+    public void before() {
+        cleaner = new ResourceCleaner(TestUserHelper.getSignedInAdmin());
+    }
+
+    @After
+    public void after() throws Exception {
+        cleaner.cleanup();
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void publishLatencyAndSchemaRevisions() throws Exception {
+        List<String> rows = new ArrayList<>();
+        for (int questionsPerType : QUESTIONS_PER_TYPE) {
+            Survey survey = TestSurvey.getLargeSurvey(SurveySchemaDerivationBenchmarkTest.class, questionsPerType,
+                    10, questionsPerType);
+            String schemaId = survey.getIdentifier();
+            cleaner.registerUploadSchema(schemaId);
+
+            LatencyRecorder publish = new LatencyRecorder("publishSurvey, " + (questionsPerType * 9)
+                    + " questions");
+            GuidCreatedOnVersionHolder keys = surveysApi.createSurvey(survey).execute().body();
+            cleaner.registerSurvey(keys);
+            long millis = timePublish(publish, keys);
+            long schemaRevision = getSchemaRevision(schemaId);
+            int questionCount = survey.getElements().size();
+            rows.add(row(questionsPerType, 0, "initial", questionCount, millis, schemaRevision, false));
+
+            int unexpected = 0;
+            for (int revision = 1; revision <= REVISIONS; revision++) {
+                keys = surveysApi.versionSurvey(keys.getGuid(), keys.getCreatedOn()).execute().body();
+                cleaner.registerSurvey(keys);
+                Survey next = surveysApi.getSurvey(keys.getGuid(), keys.getCreatedOn()).execute().body();
+
+                boolean incompatible = (revision % INCOMPATIBLE_EVERY_N_REVISIONS == 0);
+                if (incompatible) {
+                    toggleQuestionType(next.getElements());
+                } else {
+                    next.getElements().add(question("added_" + revision, UIHint.TEXTFIELD, stringConstraints()));
+                }
+                surveysApi.updateSurvey(keys.getGuid(), keys.getCreatedOn(), next).execute();
+
+                millis = timePublish(publish, keys);
+                long newSchemaRevision = getSchemaRevision(schemaId);
+                boolean bumped = newSchemaRevision != schemaRevision;
+                if (bumped != incompatible) {
+                    unexpected++;
+                    LOG.warn(schemaId + " revision " + revision + ": " + (incompatible ? "incompatible" : "compatible")
+                            + " change " + (bumped ? "bumped" : "did not bump") + " the schema revision");
+                }
+                rows.add(row(questionsPerType, revision, incompatible ? "incompatible" : "compatible",
+                        next.getElements().size(), millis, newSchemaRevision, bumped));
+                schemaRevision = newSchemaRevision;
+            }
+            publish.log();
+            LOG.info(schemaId + ": " + unexpected + " unexpected schema revision change(s) in " + REVISIONS
+                    + " revisions");
+        }
+        LoadTestHelper.appendResults("survey-schema-derivation", "questionsPerType,surveyRevision,change,"
+                + "questionCount,publishMillis,schemaRevision,schemaRevisionBumped", rows);
+        assertEquals(QUESTIONS_PER_TYPE.size() * (REVISIONS + 1), rows.size());
+    }
+
+    private static long timePublish(LatencyRecorder recorder, GuidCreatedOnVersionHolder keys) throws Exception {
+        long start = System.currentTimeMillis();
+        recorder.time(() -> surveysApi.publishSurvey(keys.getGuid(), keys.getCreatedOn(), false).execute().body());
+        return System.currentTimeMillis() - start;
+    }
+
+    private static long getSchemaRevision(String schemaId) throws Exception {
+        UploadSchema schema = schemasApi.getMostRecentUploadSchema(schemaId).execute().body();
+        return schema.getRevision();
+    }
+
+    // Flips the toggled question between boolean and string, which the server can't merge into the existing schema.
+    private static void toggleQuestionType(List<SurveyElement> elements) {
+        for (int i = 0; i < elements.size(); i++) {
+            SurveyElement element = elements.get(i);
+            if (TOGGLED_QUESTION_ID.equals(element.getIdentifier())) {
+                Constraints current = ((SurveyQuestion)element).getConstraints();
+                if (current instanceof BooleanConstraints) {
+                    elements.set(i, question(TOGGLED_QUESTION_ID, UIHint.TEXTFIELD, stringConstraints()));
+                } else {
+                    BooleanConstraints bc = new BooleanConstraints();
+                    bc.setDataType(DataType.BOOLEAN);
+                    elements.set(i, question(TOGGLED_QUESTION_ID, UIHint.CHECKBOX, bc));
+                }
+                return;
+            }
+        }
+    }
+
+    private static StringConstraints stringConstraints() {
+        StringConstraints sc = new StringConstraints();
+        sc.setDataType(DataType.STRING);
+        return sc;
+    }
+
+    private static SurveyQuestion question(String identifier, UIHint uiHint, Constraints constraints) {
+        SurveyQuestion question = new SurveyQuestion();
+        question.setIdentifier(identifier);
+        question.setPrompt("Tell us about " + identifier);
+        question.setUiHint(uiHint);
+        question.setConstraints(constraints);
+        question.setType("SurveyQuestion");
+        return question;
+    }
+
+    private static String row(int questionsPerType, int surveyRevision, String change, int questionCount,
+            long publishMillis, long schemaRevision, boolean bumped) {
+        return questionsPerType + "," + surveyRevision + "," + change + "," + questionCount + "," + publishMillis
+                + "," + schemaRevision + "," + bumped;
+    }
+}
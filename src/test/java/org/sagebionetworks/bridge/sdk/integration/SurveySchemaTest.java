@@ -8,10 +8,8 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
-import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
 import org.sagebionetworks.bridge.rest.api.SurveysApi;
 import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
-import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
 import org.sagebionetworks.bridge.rest.model.BooleanConstraints;
 import org.sagebionetworks.bridge.rest.model.DataType;
 import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
@@ -27,20 +25,14 @@ import org.sagebionetworks.bridge.rest.model.UploadFieldType;
 import org.sagebionetworks.bridge.rest.model.UploadSchema;
 import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
 import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class SurveySchemaTest {
-    private static final Logger LOG = LoggerFactory.getLogger(SurveySchemaTest.class);
-
     private static final String SURVEY_NAME = "Compatibility Test Survey";
 
     private static TestUser admin;
@@ -50,9 +42,7 @@ public class SurveySchemaTest {
 
     private String surveyId;
 
-    // We use SimpleGuidCreatedOnVersionHolder, because we need to use an immutable version holder, to ensure we're
-    // deleting the correct surveys.
-    private Set<GuidCreatedOnVersionHolder> surveysToDelete;
+    private ResourceCleaner cleaner;
 
     @BeforeClass
     public static void beforeClass() throws Exception {
@@ -66,32 +56,14 @@ public class SurveySchemaTest {
     public void before() {
         surveyId = "SurveySchemaTest-" + RandomStringUtils.randomAlphabetic(4);
 
-        // Init surveys to delete set. It's not clear whether JUnit will re-init member vars between each method, so we
-        // do it here just to be clear.
-        surveysToDelete = new HashSet<>();
+        // Surveys are deleted before the schema derived from them. The test may have already deleted the schema.
+        cleaner = new ResourceCleaner(admin);
+        cleaner.registerUploadSchema(surveyId);
     }
 
     @After
     public void after() throws Exception {
-        // cleanup surveys
-        SurveysApi surveysApi = admin.getClient(SurveysApi.class);
-        for (GuidCreatedOnVersionHolder oneSurvey : surveysToDelete) {
-            try {
-                surveysApi.deleteSurvey(oneSurvey.getGuid(), oneSurvey.getCreatedOn(), true).execute();
-            } catch (RuntimeException ex) {
-                LOG.error("Error deleting survey=" + oneSurvey + ": " + ex.getMessage(), ex);
-            }
-        }
-    }
-
-    @After
-    public void deleteSchemas() throws Exception {
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
-        try {
-            adminApi.deleteAllRevisionsOfUploadSchema(Tests.TEST_KEY, surveyId).execute();
-        } catch (EntityNotFoundException ex) {
-            // Suppress the exception, as the test may have already deleted the schema.
-        }
+        cleaner.cleanup();
     }
 
     @AfterClass
@@ -351,14 +323,14 @@ public class SurveySchemaTest {
 
     private GuidCreatedOnVersionHolder createSurvey(Survey survey) throws Exception {
         GuidCreatedOnVersionHolder versionHolder = surveysApi.createSurvey(survey).execute().body();
-        surveysToDelete.add(versionHolder);
+        cleaner.registerSurvey(versionHolder);
         return versionHolder;
     }
 
     private GuidCreatedOnVersionHolder versionSurvey(GuidCreatedOnVersionHolder survey) throws Exception {
         GuidCreatedOnVersionHolder versionHolder = surveysApi
                 .versionSurvey(survey.getGuid(), survey.getCreatedOn()).execute().body();
-        surveysToDelete.add(versionHolder);
+        cleaner.registerSurvey(versionHolder);
         return versionHolder;
     }
 }
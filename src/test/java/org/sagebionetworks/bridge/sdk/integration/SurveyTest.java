@@ -28,8 +28,6 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
 import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
@@ -55,15 +53,11 @@ import org.sagebionetworks.bridge.rest.model.SurveyRule;
 import org.sagebionetworks.bridge.rest.model.UIHint;
 
 public class SurveyTest {
-    private static final Logger LOG = LoggerFactory.getLogger(SurveyTest.class);
-    
     private static TestUser developer;
     private static TestUser user;
     private static TestUser worker;
 
-    // We use SimpleGuidCreatedOnVersionHolder, because we need to use an immutable version holder, to ensure we're
-    // deleting the correct surveys.
-    private Set<GuidCreatedOnVersionHolder> surveysToDelete;
+    private ResourceCleaner cleaner;
 
     @BeforeClass
     public static void beforeClass() throws Exception {
@@ -74,24 +68,14 @@ public class SurveyTest {
 
     @Before
     public void before() {
-        // Init surveys to delete set. It's not clear whether JUnit will re-init member vars between each method, so we
-        // do it here just to be clear.
-        surveysToDelete = new HashSet<>();
+        // Init the cleaner. It's not clear whether JUnit will re-init member vars between each method, so we do it
+        // here just to be clear.
+        cleaner = new ResourceCleaner(TestUserHelper.getSignedInAdmin());
     }
 
     @After
     public void after() throws Exception {
-        // cleanup surveys
-        TestUser admin = TestUserHelper.getSignedInAdmin();
-        
-        SurveysApi surveysApi = admin.getClient(SurveysApi.class);
-        for (GuidCreatedOnVersionHolder oneSurvey : surveysToDelete) {
-            try {
-                surveysApi.deleteSurvey(oneSurvey.getGuid(), oneSurvey.getCreatedOn(), true).execute();
-            } catch (RuntimeException ex) {
-                LOG.error("Error deleting survey=" + oneSurvey + ": " + ex.getMessage(), ex);
-            }
-        }
+        cleaner.cleanup();
     }
 
     @AfterClass
@@ -305,7 +289,7 @@ public class SurveyTest {
         
         keys = surveysApi.publishSurvey(keys.getGuid(), keys.getCreatedOn(), false).execute().body();
         
-        surveysToDelete.add(new MutableHolder(keys));
+        cleaner.registerSurvey(keys);
 
         SurveyList allRevisions = surveysApi.getAllVersionsOfSurvey(keys.getGuid()).execute().body();
         assertEquals("There are now two versions", (Integer)2, allRevisions.getTotal());
@@ -527,14 +511,14 @@ public class SurveyTest {
 
     private GuidCreatedOnVersionHolder createSurvey(SurveysApi surveysApi, Survey survey) throws Exception {
         GuidCreatedOnVersionHolder keys = surveysApi.createSurvey(survey).execute().body();
-        surveysToDelete.add(keys);
+        cleaner.registerSurvey(keys);
         return keys;
     }
 
     private GuidCreatedOnVersionHolder versionSurvey(SurveysApi surveysApi, GuidCreatedOnVersionHolder survey) throws Exception {
         GuidCreatedOnVersionHolder versionHolder = surveysApi
                 .versionSurvey(survey.getGuid(), survey.getCreatedOn()).execute().body();
-        surveysToDelete.add(versionHolder);
+        cleaner.registerSurvey(versionHolder);
         return versionHolder;
     }
 
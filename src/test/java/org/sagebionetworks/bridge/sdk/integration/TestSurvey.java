@@ -8,6 +8,7 @@ import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
 
 import org.sagebionetworks.bridge.rest.model.BooleanConstraints;
+import org.sagebionetworks.bridge.rest.model.Constraints;
 import org.sagebionetworks.bridge.rest.model.DataType;
 import org.sagebionetworks.bridge.rest.model.DateConstraints;
 import org.sagebionetworks.bridge.rest.model.DateTimeConstraints;
@@ -204,4 +205,104 @@ public class TestSurvey {
         return survey;
     }
 
+    private static final String[] STRING_PATTERNS = { "\\d{3}-\\d{3}-\\d{4}", "[A-Z]{2}\\d{5}", "[a-z]+@[a-z]+\\.org" };
+
+    /**
+     * Builds a survey with the given number of questions of each constraint type, multi-value questions with
+     * enumerations of the given size, and the given number of skip rules (spread over the integer questions, each
+     * skipping to a later question). Used to benchmark the survey APIs as surveys grow.
+     */
+    public static Survey getLargeSurvey(Class<?> cls, int questionsPerType, int enumerationSize, int ruleCount) {
+        Survey survey = new Survey();
+        survey.setName("Large Survey (" + questionsPerType + " questions per type)");
+        survey.setIdentifier(Tests.randomIdentifier(cls));
+        List<SurveyElement> elements = survey.getElements();
+
+        List<IntegerConstraints> integerConstraints = Lists.newArrayList();
+        for (int i = 0; i < questionsPerType; i++) {
+            IntegerConstraints ic = new IntegerConstraints();
+            ic.setMinValue(0);
+            ic.setMaxValue(100);
+            ic.setDataType(DataType.INTEGER);
+            integerConstraints.add(ic);
+            elements.add(question("integer_" + i, "How many times did this happen?", UIHint.NUMBERFIELD, ic));
+
+            BooleanConstraints bc = new BooleanConstraints();
+            bc.setDataType(DataType.BOOLEAN);
+            elements.add(question("boolean_" + i, "Did this happen?", UIHint.CHECKBOX, bc));
+
+            DateConstraints dc = new DateConstraints();
+            dc.setDataType(DataType.DATE);
+            dc.setEarliestValue(LocalDate.parse("2000-01-01"));
+            dc.setLatestValue(LocalDate.parse("2020-12-31"));
+            dc.setAllowFuture(true);
+            elements.add(question("date_" + i, "On what day did this happen?", UIHint.DATEPICKER, dc));
+
+            DateTimeConstraints dtc = new DateTimeConstraints();
+            dtc.setDataType(DataType.DATETIME);
+            dtc.setEarliestValue(DateTime.parse("2000-01-01").withZone(DateTimeZone.UTC));
+            dtc.setLatestValue(DateTime.parse("2020-12-31").withZone(DateTimeZone.UTC));
+            dtc.setAllowFuture(true);
+            elements.add(question("datetime_" + i, "When did this happen?", UIHint.DATETIMEPICKER, dtc));
+
+            DecimalConstraints dec = new DecimalConstraints();
+            dec.setDataType(DataType.DECIMAL);
+            dec.setMinValue(BigDecimal.valueOf(0.0d));
+            dec.setMaxValue(BigDecimal.valueOf(10.0d));
+            dec.setStep(BigDecimal.valueOf(0.1d));
+            elements.add(question("decimal_" + i, "How much did you take?", UIHint.NUMBERFIELD, dec));
+
+            DurationConstraints duc = new DurationConstraints();
+            duc.setDataType(DataType.DURATION);
+            duc.setMinValue(1);
+            duc.setMaxValue(120);
+            duc.setUnit(Unit.MINUTES);
+            elements.add(question("duration_" + i, "How long did it take?", UIHint.SLIDER, duc));
+
+            TimeConstraints tc = new TimeConstraints();
+            tc.setDataType(DataType.TIME);
+            elements.add(question("time_" + i, "At what time of day?", UIHint.TIMEPICKER, tc));
+
+            MultiValueConstraints mvc = new MultiValueConstraints();
+            List<SurveyQuestionOption> options = Lists.newArrayList();
+            for (int j = 0; j < enumerationSize; j++) {
+                options.add(option("Option " + j, null, Integer.toString(j), null));
+            }
+            mvc.setEnumeration(options);
+            mvc.setAllowOther(false);
+            mvc.setAllowMultiple(true);
+            mvc.setDataType(DataType.STRING);
+            elements.add(question("multivalue_" + i, "Which of these apply?", UIHint.LIST, mvc));
+
+            StringConstraints sc = new StringConstraints();
+            sc.setDataType(DataType.STRING);
+            sc.setMinLength(2);
+            sc.setMaxLength(255);
+            sc.setPattern(STRING_PATTERNS[i % STRING_PATTERNS.length]);
+            sc.setPatternErrorMessage("Please enter a valid value");
+            elements.add(question("string_" + i, "Please describe it.", UIHint.TEXTFIELD, sc));
+        }
+        // The string question is the last one in each block, so it is always after the integer question that
+        // skips to it.
+        if (questionsPerType > 0) {
+            for (int i = 0; i < ruleCount; i++) {
+                int block = i % questionsPerType;
+                String value = Integer.toString((i / questionsPerType) % 100);
+                integerConstraints.get(block).getRules().add(rule(Operator.EQ, value, "string_" + block));
+            }
+        }
+        return survey;
+    }
+
+    private static SurveyQuestion question(String identifier, String prompt, UIHint uiHint,
+            Constraints constraints) {
+        SurveyQuestion question = new SurveyQuestion();
+        question.setIdentifier(identifier);
+        question.setPrompt(prompt);
+        question.setUiHint(uiHint);
+        question.setConstraints(constraints);
+        question.setType("SurveyQuestion");
+        return question;
+    }
+
 }
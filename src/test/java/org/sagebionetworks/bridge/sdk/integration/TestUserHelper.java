@@ -34,7 +34,9 @@ public class TestUserHelper {
     public static class TestUser {
         private SignIn signIn;
         private ClientManager manager;
-        private UserSessionInfo userSession;
+        private final ClientVariants clients;
+        private volatile ClientInfo clientInfo;
+        private volatile UserSessionInfo userSession;
 
         public TestUser(SignIn signIn, ClientManager manager) {
             checkNotNull(signIn.getStudy());
@@ -43,6 +45,9 @@ public class TestUserHelper {
             checkNotNull(manager);
             this.signIn = signIn;
             this.manager = manager;
+            this.clientInfo = manager.getClientInfo();
+            // API clients run over the shared HTTP transport, not the manager's own HTTP client.
+            this.clients = new ClientVariants(this);
         }
         public UserSessionInfo getSession() {
             return userSession;
@@ -63,10 +68,10 @@ public class TestUserHelper {
             return signIn.getStudy();
         }
         public <T> T getClient(Class<T> service) {
-            return manager.getClient(service);
+            return clients.getClient(service, clientInfo, LANGUAGES);
         }
         public UserSessionInfo signInAgain() {
-            AuthenticationApi authApi = manager.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = clients.getSignInClient(AuthenticationApi.class, clientInfo, LANGUAGES);
             try {
                 userSession = authApi.signIn(getSignIn()).execute().body();
             } catch (ConsentRequiredException e) {
@@ -78,7 +83,7 @@ public class TestUserHelper {
             return userSession;
         }
         public void signOut() throws IOException {
-            AuthenticationApi authApi = manager.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = getClient(AuthenticationApi.class);
             authApi.signOut().execute();
             userSession.setAuthenticated(false);
         }
@@ -100,13 +105,16 @@ public class TestUserHelper {
         public Config getConfig() {
             return manager.getConfig();
         }
+        public ClientInfo getClientInfo() {
+            return clientInfo;
+        }
+        /**
+         * Calls made from now on identify themselves with this ClientInfo, on the same session and connections. What
+         * the server works out at sign-in (consent statuses, for instance) only changes after signInAgain().
+         */
         public void setClientInfo(ClientInfo clientInfo) {
-            ClientManager man = new ClientManager.Builder()
-                    .withClientInfo(clientInfo)
-                    .withSignIn(signIn)
-                    .withConfig(manager.getConfig())
-                    .withAcceptLanguage(LANGUAGES).build();
-            this.manager = man;
+            checkNotNull(clientInfo);
+            this.clientInfo = clientInfo;
         }
     }
     public static TestUser getSignedInAdmin() {
@@ -7,6 +7,7 @@ import org.sagebionetworks.bridge.rest.Config;
 import org.sagebionetworks.bridge.rest.model.ABTestGroup;
 import org.sagebionetworks.bridge.rest.model.ABTestScheduleStrategy;
 import org.sagebionetworks.bridge.rest.model.Activity;
+import org.sagebionetworks.bridge.rest.model.ClientInfo;
 import org.sagebionetworks.bridge.rest.model.EmailTemplate;
 import org.sagebionetworks.bridge.rest.model.MimeType;
 import org.sagebionetworks.bridge.rest.model.Schedule;
@@ -173,6 +174,22 @@ public class Tests {
         return ((SimpleScheduleStrategy)plan.getStrategy()).getSchedule().getActivities().get(0);    
     }
     
+    /**
+     * A ClientInfo for the OS and app version, for tests of criteria matched against the User-Agent. With no OS name,
+     * the User-Agent has no OS either.
+     */
+    public static ClientInfo getClientInfoWithVersion(String osName, Integer version) {
+        ClientInfo info = new ClientInfo();
+        info.setAppName("App");
+        info.setAppVersion(version);
+        info.setDeviceName(APP_NAME);
+        info.setOsName(osName);
+        info.setOsVersion(osName == null ? null : "2.0.0");
+        info.setSdkName("BridgeJavaSDK");
+        info.setSdkVersion(Integer.parseInt(new Config().getSdkVersion()));
+        return info;
+    }
+    
     public static Study getStudy(String identifier, Long version) {
         Study study = new Study();
         study.setIdentifier(identifier);
@@ -0,0 +1,152 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+import org.joda.time.LocalTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesApi;
+import org.sagebionetworks.bridge.rest.model.GuidVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivity;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityList;
+import org.sagebionetworks.bridge.rest.model.SchedulePlan;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Spreads participants over every UTC offset in use (including the half- and quarter-hour ones), and has them all
+ * request their daily activities at once. The schedule fires at midnight, just before the next midnight and at noon,
+ * so at most offsets the local day and the UTC day of an activity differ. Reports activity-generation latency per
+ * offset, and checks that every activity lands on one of the schedule's local times with no duplicate guids and no
+ * local time repeated on the same local day.
+ *
+ * <p>getScheduledActivities takes a fixed UTC offset, not a time zone, so a request can't span a DST transition;
+ * DST-shifting zones are covered by the fixed offsets they switch between.</p>
+ */
+@Category(LoadTest.class)
+public class TimeZoneFanOutTest {
+    private static final Logger LOG = LoggerFactory.getLogger(TimeZoneFanOutTest.class);
+
+    private static final int USERS_PER_OFFSET = LoadTestHelper.getIntProperty("load.usersPerOffset", 1);
+    private static final int REQUESTS_PER_USER = LoadTestHelper.getIntProperty("load.requests", 5);
+    private static final int DAYS_AHEAD = 4;
+
+    private static final String[] FIXED_OFFSETS = { "-12:00", "-11:00", "-10:00", "-09:30", "-09:00", "-08:00",
+            "-07:00", "-06:00", "-05:00", "-04:00", "-03:30", "-03:00", "-02:00", "-01:00", "+00:00", "+01:00",
+            "+02:00", "+03:00", "+03:30", "+04:00", "+04:30", "+05:00", "+05:30", "+05:45", "+06:00", "+06:30",
+            "+07:00", "+08:00", "+08:45", "+09:00", "+09:30", "+10:00", "+10:30", "+11:00", "+12:00", "+12:45",
+            "+13:00", "+14:00" };
+    private static final List<String> SCHEDULE_TIMES = Lists.newArrayList("00:00", "12:00", "23:45");
+
+    private TestUser developer;
+    private GuidVersionHolder planKeys;
+    private List<TestUser> users;
+    private List<String> offsets;
+    private Set<LocalTime> expectedTimes;
+
+    @Before
+    public void before() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(TimeZoneFanOutTest.class, true, Role.DEVELOPER);
+
+        SchedulePlan plan = Tests.getDailyRepeatingSchedulePlan();
+        Tests.getSimpleSchedule(plan).setTimes(SCHEDULE_TIMES);
+        expectedTimes = new HashSet<>();
+        for (String time : SCHEDULE_TIMES) {
+            expectedTimes.add(LocalTime.parse(time));
+        }
+        planKeys = developer.getClient(SchedulesApi.class).createSchedulePlan(plan).execute().body();
+
+        offsets = new ArrayList<>();
+        for (String offset : FIXED_OFFSETS) {
+            for (int i = 0; i < USERS_PER_OFFSET; i++) {
+                offsets.add(offset);
+            }
+        }
+        users = LoadTestHelper.createUsers(TimeZoneFanOutTest.class, offsets.size(), true);
+    }
+
+    @After
+    public void after() throws Exception {
+        try {
+            if (planKeys != null) {
+                developer.getClient(SchedulesApi.class).deleteSchedulePlan(planKeys.getGuid()).execute();
+            }
+        } finally {
+            LoadTestHelper.deleteUsers(users);
+            if (developer != null) {
+                developer.signOutAndDeleteUser();
+            }
+        }
+    }
+
+    @Test
+    public void activityGenerationAcrossOffsets() throws Exception {
+        Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            TestUser user = users.get(i);
+            String offset = offsets.get(i);
+            LatencyRecorder recorder = recorders.computeIfAbsent(offset, o -> new LatencyRecorder("offset " + o));
+            tasks.add(() -> {
+                ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+                for (int j = 0; j < REQUESTS_PER_USER; j++) {
+                    ScheduledActivityList list = recorder.time(
+                            () -> usersApi.getScheduledActivities(offset, DAYS_AHEAD, null).execute().body());
+                    verifyActivities(offset, list, errors);
+                }
+                return null;
+            });
+        }
+        LoadTestHelper.runConcurrently(users.size(), tasks);
+
+        // Sort by offset for readability, slowest paths are then easy to spot against their neighbours.
+        for (LatencyRecorder recorder : new TreeMap<>(recorders).values()) {
+            recorder.log();
+        }
+        for (String error : errors) {
+            LOG.error(error);
+        }
+        assertTrue(errors.size() + " timezone errors, see log", errors.isEmpty());
+    }
+
+    private void verifyActivities(String offset, ScheduledActivityList list, ConcurrentLinkedQueue<String> errors) {
+        DateTimeZone zone = DateTimeZone.forID(offset);
+        Set<String> guids = new HashSet<>();
+        Set<LocalDateTime> localTimes = new HashSet<>();
+        for (ScheduledActivity activity : list.getItems()) {
+            if (!guids.add(activity.getGuid())) {
+                errors.add("offset " + offset + ": duplicate guid " + activity.getGuid());
+            }
+            DateTime localScheduledOn = activity.getScheduledOn().withZone(zone);
+            if (!expectedTimes.contains(localScheduledOn.toLocalTime())) {
+                errors.add("offset " + offset + ": activity " + activity.getGuid() + " scheduled at "
+                        + localScheduledOn);
+            }
+            if (!localTimes.add(localScheduledOn.toLocalDateTime())) {
+                errors.add("offset " + offset + ": more than one activity at " + localScheduledOn.toLocalDateTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.joda.time.DateTime;
+
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadList;
+
+/**
+ * Audits a study's uploads over a long time range. The range is split into equal time slices, and slices are paged
+ * (through offsetKey) in parallel. Results are still delivered in order: slices are handed to the consumer one at a
+ * time, in time order, each sorted by requestedOn. Only a bounded window of slices is fetched ahead of the consumer,
+ * so memory stays proportional to the slice size rather than the range. An upload returned by two adjacent slices
+ * (one requested exactly on the boundary) or twice within a slice is delivered once.
+ */
+public class UploadAuditScanner {
+
+    private static final Comparator<Upload> BY_REQUESTED_ON = Comparator.comparing(Upload::getRequestedOn,
+            Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(Upload::getUploadId);
+
+    private final StudiesApi studiesApi;
+    private final int threadCount;
+    private final long pageSize;
+
+    /**
+     * @param threadCount
+     *         slices fetched at the same time; twice as many are buffered ahead of the consumer
+     * @param pageSize
+     *         page size requested from getUploads
+     */
+    public UploadAuditScanner(StudiesApi studiesApi, int threadCount, long pageSize) {
+        checkNotNull(studiesApi);
+        checkArgument(threadCount > 0);
+        checkArgument(pageSize > 0);
+        this.studiesApi = studiesApi;
+        this.threadCount = threadCount;
+        this.pageSize = pageSize;
+    }
+
+    /** Scan statistics. */
+    public static class ScanResult {
+        private final int slices;
+        private final long pages;
+        private final long uploads;
+        private final long duplicates;
+        private final long elapsedMillis;
+        private final LatencyRecorder pageLatency;
+
+        ScanResult(int slices, long pages, long uploads, long duplicates, long elapsedMillis,
+                LatencyRecorder pageLatency) {
+            this.slices = slices;
+            this.pages = pages;
+            this.uploads = uploads;
+            this.duplicates = duplicates;
+            this.elapsedMillis = elapsedMillis;
+            this.pageLatency = pageLatency;
+        }
+
+        public int getSlices() {
+            return slices;
+        }
+
+        public long getPages() {
+            return pages;
+        }
+
+        /** Uploads delivered to the consumer. */
+        public long getUploads() {
+            return uploads;
+        }
+
+        /** Uploads returned more than once (at slice boundaries or across pages) and dropped. */
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getUploadsPerSecond() {
+            return LoadTestHelper.ratePerSecond(uploads, elapsedMillis);
+        }
+
+        public double getPagesPerSecond() {
+            return LoadTestHelper.ratePerSecond(pages, elapsedMillis);
+        }
+
+        public LatencyRecorder getPageLatency() {
+            return pageLatency;
+        }
+
+        public String summary() {
+            return String.format("upload scan: slices=%d, pages=%d, uploads=%d, duplicates=%d, elapsed=%dms, "
+                    + "uploads/s=%.1f, pages/s=%.1f; %s", slices, pages, uploads, duplicates, elapsedMillis,
+                    getUploadsPerSecond(), getPagesPerSecond(), pageLatency.summary());
+        }
+    }
+
+    /**
+     * Scans [start, end) in the given number of slices and passes each upload to the consumer, in requestedOn order,
+     * on the calling thread.
+     */
+    public ScanResult scan(DateTime start, DateTime end, int sliceCount, Consumer<Upload> consumer)
+            throws Exception {
+        checkNotNull(start);
+        checkNotNull(end);
+        checkArgument(end.isAfter(start));
+        checkArgument(sliceCount > 0);
+        checkNotNull(consumer);
+
+        List<DateTime> boundaries = new ArrayList<>();
+        long sliceMillis = Math.max(1L, (end.getMillis() - start.getMillis()) / sliceCount);
+        for (int i = 0; i < sliceCount; i++) {
+            boundaries.add(start.plus(sliceMillis * i));
+        }
+        boundaries.add(end);
+
+        LatencyRecorder pageLatency = new LatencyRecorder("getUploads page");
+        AtomicLong pages = new AtomicLong();
+        long uploads = 0L;
+        long duplicates = 0L;
+        long startMillis = System.currentTimeMillis();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, sliceCount));
+        try {
+            Deque<Future<List<Upload>>> window = new ArrayDeque<>();
+            int nextSlice = 0;
+            Set<String> previousSliceIds = new HashSet<>();
+            for (int slice = 0; slice < sliceCount; slice++) {
+                // Keep the window full.
+                while (nextSlice < sliceCount && window.size() < threadCount * 2) {
+                    DateTime sliceStart = boundaries.get(nextSlice);
+                    DateTime sliceEnd = boundaries.get(nextSlice + 1);
+                    window.add(executor.submit(() -> fetchSlice(sliceStart, sliceEnd, pageLatency, pages)));
+                    nextSlice++;
+                }
+                List<Upload> sliceUploads = await(window.removeFirst());
+                sliceUploads.sort(BY_REQUESTED_ON);
+
+                Set<String> sliceIds = new HashSet<>();
+                for (Upload upload : sliceUploads) {
+                    if (previousSliceIds.contains(upload.getUploadId()) || !sliceIds.add(upload.getUploadId())) {
+                        duplicates++;
+                        continue;
+                    }
+                    consumer.accept(upload);
+                    uploads++;
+                }
+                previousSliceIds = sliceIds;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new ScanResult(sliceCount, pages.get(), uploads, duplicates,
+                System.currentTimeMillis() - startMillis, pageLatency);
+    }
+
+    private List<Upload> fetchSlice(DateTime sliceStart, DateTime sliceEnd, LatencyRecorder pageLatency,
+            AtomicLong pages) throws Exception {
+        List<Upload> uploads = new ArrayList<>();
+        String offsetKey = null;
+        do {
+            String key = offsetKey;
+            UploadList page = pageLatency.time(() -> studiesApi.getUploads(sliceStart, sliceEnd, pageSize, key)
+                    .execute().body());
+            pages.incrementAndGet();
+            uploads.addAll(page.getItems());
+            offsetKey = page.getOffsetKey();
+        } while (offsetKey != null);
+        return uploads;
+    }
+
+    private static List<Upload> await(Future<List<Upload>> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadList;
+
+/**
+ * Runs {@link UploadAuditScanner} against an in-process StudiesApi, so slice paging, ordering and boundary dedup can
+ * be checked exactly without a server. The stub treats both ends of a range as inclusive, returns each page newest
+ * first, and is slow enough that slices overlap.
+ */
+public class UploadAuditScannerPagingTest {
+
+    private static final DateTime START = DateTime.parse("2017-01-01T00:00:00.000Z");
+    private static final DateTime END = START.plusHours(8);
+    private static final int SLICES = 8;
+    private static final int THREADS = 4;
+    private static final long PAGE_SIZE = 5L;
+    private static final long PAGE_MILLIS = 20L;
+
+    @Test
+    public void slicesArePagedInParallelAndDeliveredInOrderOnce() throws Exception {
+        // One upload every 5 minutes, so one lands exactly on each of the 7 interior slice boundaries and every
+        // slice spans 3 pages.
+        List<Upload> uploads = new ArrayList<>();
+        for (int minute = 0; minute < 8 * 60; minute += 5) {
+            uploads.add(new Upload().uploadId(String.format("upload-%03d", minute))
+                    .requestedOn(START.plusMinutes(minute)));
+        }
+        StubUploads stub = new StubUploads(uploads);
+        UploadAuditScanner scanner = new UploadAuditScanner(stub.api(), THREADS, PAGE_SIZE);
+
+        List<Upload> delivered = new ArrayList<>();
+        UploadAuditScanner.ScanResult result = scanner.scan(START, END, SLICES, delivered::add);
+
+        assertEquals(uploads.size(), delivered.size());
+        for (int i = 0; i < uploads.size(); i++) {
+            assertEquals(uploads.get(i).getUploadId(), delivered.get(i).getUploadId());
+        }
+        assertEquals(uploads.size(), result.getUploads());
+        assertEquals(SLICES - 1, result.getDuplicates());
+        // Slices 0-6 hold 13 uploads each (both boundaries) and slice 7 holds 12, so 3 pages apiece.
+        assertEquals(SLICES * 3, result.getPages());
+        assertEquals(result.getPages(), stub.calls.get());
+        assertTrue("Slices should be paged in parallel, peak was " + stub.peakConcurrent.get(),
+                stub.peakConcurrent.get() > 1);
+    }
+
+    @Test
+    public void singleSliceMatchesSlicedScan() throws Exception {
+        List<Upload> uploads = new ArrayList<>();
+        for (int minute = 0; minute < 8 * 60; minute += 3) {
+            uploads.add(new Upload().uploadId(String.format("upload-%03d", minute))
+                    .requestedOn(START.plusMinutes(minute).withZone(DateTimeZone.forOffsetHours(-7))));
+        }
+        StudiesApi api = new StubUploads(uploads).api();
+
+        List<String> serial = new ArrayList<>();
+        UploadAuditScanner.ScanResult serialResult = new UploadAuditScanner(api, THREADS, PAGE_SIZE).scan(START, END,
+                1, upload -> serial.add(upload.getUploadId()));
+        List<String> sliced = new ArrayList<>();
+        UploadAuditScanner.ScanResult slicedResult = new UploadAuditScanner(api, THREADS, PAGE_SIZE).scan(START,
+                END, SLICES, upload -> sliced.add(upload.getUploadId()));
+
+        assertEquals(serial, sliced);
+        assertEquals(0, serialResult.getDuplicates());
+        // Every interior boundary (on the hour) has an upload, since 60 is a multiple of 3.
+        assertEquals(SLICES - 1, slicedResult.getDuplicates());
+    }
+
+    // getUploads over a fixed list of uploads. The offset key is the index of the next upload in the range.
+    private static final class StubUploads {
+        private final List<Upload> uploads;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger peakConcurrent = new AtomicInteger();
+
+        StubUploads(List<Upload> uploads) {
+            this.uploads = uploads;
+        }
+
+        StudiesApi api() {
+            return (StudiesApi)Proxy.newProxyInstance(StudiesApi.class.getClassLoader(),
+                    new Class<?>[] { StudiesApi.class }, (proxy, method, args) -> {
+                        if (!method.getName().equals("getUploads")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        return call(() -> getUploads((DateTime)args[0], (DateTime)args[1], (Long)args[2],
+                                (String)args[3]));
+                    });
+        }
+
+        private UploadList getUploads(DateTime start, DateTime end, long pageSize, String offsetKey)
+                throws InterruptedException {
+            calls.incrementAndGet();
+            peakConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(PAGE_MILLIS);
+                List<Upload> inRange = new ArrayList<>();
+                for (Upload upload : uploads) {
+                    if (!upload.getRequestedOn().isBefore(start) && !upload.getRequestedOn().isAfter(end)) {
+                        inRange.add(upload);
+                    }
+                }
+                int from = offsetKey == null ? 0 : Integer.parseInt(offsetKey);
+                int to = (int)Math.min(inRange.size(), from + pageSize);
+                List<Upload> page = new ArrayList<>(inRange.subList(from, to));
+                Collections.reverse(page);
+                return new UploadList().items(page).offsetKey(to < inRange.size() ? Integer.toString(to) : null);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+    }
+
+    private interface Body<T> {
+        T get() throws Exception;
+    }
+
+    // A Call whose execute() answers from the stub; nothing else on it is used by the scanner.
+    @SuppressWarnings("unchecked")
+    private static <T> Call<T> call(Body<T> body) {
+        return (Call<T>)Proxy.newProxyInstance(Call.class.getClassLoader(), new Class<?>[] { Call.class },
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("execute")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return Response.success(body.get());
+                });
+    }
+}
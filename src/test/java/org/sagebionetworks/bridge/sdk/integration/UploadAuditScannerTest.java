@@ -0,0 +1,111 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Upload;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Requests a batch of uploads, then scans a window around them with {@link UploadAuditScanner}: once serially (one
+ * slice) and once time-sliced in parallel, with a small page size so every slice pages. Both scans must deliver the
+ * same uploads in the same order, each exactly once, and throughput for both is logged.
+ */
+@Category(LoadTest.class)
+public class UploadAuditScannerTest {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadAuditScannerTest.class);
+
+    private static final int UPLOADS = LoadTestHelper.getIntProperty("load.uploads", 20);
+    private static final int SLICES = LoadTestHelper.getIntProperty("load.slices", 16);
+    private static final int THREADS = LoadTestHelper.getIntProperty("load.threads", 8);
+    private static final long PAGE_SIZE = LoadTestHelper.getIntProperty("load.pageSize", 5);
+
+    private static TestUser developer;
+    private static TestUser user;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(UploadAuditScannerTest.class, false, Role.DEVELOPER);
+        user = TestUserHelper.createAndSignInUser(UploadAuditScannerTest.class, true);
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteUser() throws Exception {
+        if (user != null) {
+            user.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void slicedScanMatchesSerialScan() throws Exception {
+        DateTime start = DateTime.now(DateTimeZone.UTC).minusHours(2);
+        DateTime end = start.plusHours(4);
+
+        // Create REQUESTED upload records for the scan to find.
+        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        UploadRequest request = new UploadRequest();
+        request.setName("upload.zip");
+        request.setContentType("application/zip");
+        request.setContentLength(100L);
+        request.setContentMd5("ABC");
+        Set<String> created = new HashSet<>();
+        for (int i = 0; i < UPLOADS; i++) {
+            created.add(usersApi.requestUploadSession(request).execute().body().getId());
+        }
+        Thread.sleep(1000); // This does depend on a GSI, so pause for a bit.
+
+        UploadAuditScanner scanner = new UploadAuditScanner(developer.getClient(StudiesApi.class), THREADS,
+                PAGE_SIZE);
+        List<String> serial = new ArrayList<>();
+        UploadAuditScanner.ScanResult serialResult = scanner.scan(start, end, 1, upload -> serial.add(
+                upload.getUploadId()));
+        LOG.info("serial " + serialResult.summary());
+
+        List<String> sliced = new ArrayList<>();
+        List<Upload> slicedUploads = new ArrayList<>();
+        UploadAuditScanner.ScanResult slicedResult = scanner.scan(start, end, SLICES, upload -> {
+            sliced.add(upload.getUploadId());
+            slicedUploads.add(upload);
+        });
+        LOG.info("sliced " + slicedResult.summary());
+
+        assertTrue("Scan should find every upload requested", new HashSet<>(sliced).containsAll(created));
+        assertEquals(sliced.size(), new HashSet<>(sliced).size());
+        // Uploads may arrive while the scans run, so compare the scans on what both saw.
+        List<String> serialCommon = new ArrayList<>(serial);
+        serialCommon.retainAll(sliced);
+        List<String> slicedCommon = new ArrayList<>(sliced);
+        slicedCommon.retainAll(serial);
+        assertEquals(serialCommon, slicedCommon);
+        for (int i = 1; i < slicedUploads.size(); i++) {
+            assertFalse("Uploads should be in requestedOn order", slicedUploads.get(i).getRequestedOn()
+                    .isBefore(slicedUploads.get(i - 1).getRequestedOn()));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.model.UploadSchema;
+
+/**
+ * Concurrent cache of upload schemas for worker clients, which look up a schema revision for every record they
+ * process. A (study, schema, revision) is treated as immutable, so once fetched it is kept for the life of the cache.
+ * "Most recent revision" lookups can change, so they are held for a TTL and then refetched; the revision they return
+ * is also cached as a specific revision. Concurrent misses for the same key share a single server call, and a failed
+ * call is not cached, so the next lookup tries again.
+ *
+ * <p>The v4 update API can still change a revision in place. Workers that need to see such an edit before the cache
+ * is discarded should call {@link #invalidate}. Returned schemas are shared between callers and must not be
+ * modified.</p>
+ */
+public class UploadSchemaCache {
+
+    private final ForWorkersApi workersApi;
+    private final long mostRecentTtlMillis;
+    private final ConcurrentMap<String, Flight> revisions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Flight> mostRecent = new ConcurrentHashMap<>();
+
+    private final AtomicLong revisionHits = new AtomicLong();
+    private final AtomicLong revisionMisses = new AtomicLong();
+    private final AtomicLong mostRecentHits = new AtomicLong();
+    private final AtomicLong mostRecentMisses = new AtomicLong();
+    private final AtomicLong collapsedMisses = new AtomicLong();
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * @param mostRecentTtlMillis
+     *         how long the answer to a most-recent-revision lookup is trusted
+     */
+    public UploadSchemaCache(ForWorkersApi workersApi, long mostRecentTtlMillis) {
+        checkNotNull(workersApi);
+        this.workersApi = workersApi;
+        this.mostRecentTtlMillis = mostRecentTtlMillis;
+    }
+
+    public UploadSchema getSchemaRevision(String studyId, String schemaId, long revision) throws Exception {
+        String key = revisionKey(studyId, schemaId, revision);
+        while (true) {
+            Flight flight = revisions.get(key);
+            if (flight != null) {
+                if (flight.future.isDone()) {
+                    revisionHits.incrementAndGet();
+                } else {
+                    collapsedMisses.incrementAndGet();
+                }
+                return await(flight);
+            }
+            Flight mine = new Flight();
+            if (revisions.putIfAbsent(key, mine) == null) {
+                revisionMisses.incrementAndGet();
+                return fetch(revisions, key, mine, () -> workersApi.getSchemaRevisionInStudy(studyId, schemaId,
+                        revision).execute().body());
+            }
+            // Another thread started the fetch first; join it.
+        }
+    }
+
+    public UploadSchema getMostRecentSchema(String studyId, String schemaId) throws Exception {
+        String key = studyId + ":" + schemaId;
+        while (true) {
+            Flight flight = mostRecent.get(key);
+            if (flight != null && !flight.future.isDone()) {
+                collapsedMisses.incrementAndGet();
+                return await(flight);
+            }
+            if (flight != null && System.currentTimeMillis() - flight.completedOn < mostRecentTtlMillis) {
+                mostRecentHits.incrementAndGet();
+                return await(flight);
+            }
+            // Missing or expired. Only the thread that installs the new flight refetches.
+            Flight mine = new Flight();
+            boolean installed = (flight == null) ? mostRecent.putIfAbsent(key, mine) == null :
+                    mostRecent.replace(key, flight, mine);
+            if (installed) {
+                mostRecentMisses.incrementAndGet();
+                UploadSchema schema = fetch(mostRecent, key, mine, () -> workersApi.getMostRecentUploadSchemaInStudy(
+                        studyId, schemaId).execute().body());
+                revisions.putIfAbsent(revisionKey(studyId, schemaId, schema.getRevision()), mine);
+                return schema;
+            }
+        }
+    }
+
+    /** Forgets a specific revision, e.g. after it was edited in place. */
+    public void invalidate(String studyId, String schemaId, long revision) {
+        revisions.remove(revisionKey(studyId, schemaId, revision));
+    }
+
+    /** Forgets the most recent revision of a schema, e.g. after a new revision was created. */
+    public void invalidateMostRecent(String studyId, String schemaId) {
+        mostRecent.remove(studyId + ":" + schemaId);
+    }
+
+    /** getSchemaRevision() calls answered from the cache. */
+    public long getRevisionHits() {
+        return revisionHits.get();
+    }
+
+    public long getRevisionMisses() {
+        return revisionMisses.get();
+    }
+
+    /** getMostRecentSchema() calls answered from the cache within the TTL. */
+    public long getMostRecentHits() {
+        return mostRecentHits.get();
+    }
+
+    public long getMostRecentMisses() {
+        return mostRecentMisses.get();
+    }
+
+    /** Lookups that arrived while the same key was being fetched, and waited for that fetch instead of their own. */
+    public long getCollapsedMisses() {
+        return collapsedMisses.get();
+    }
+
+    /** Calls made to the server. */
+    public long getFetches() {
+        return fetches.get();
+    }
+
+    /** Server calls that failed. Failures are passed to every waiting caller and are not cached. */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public int getCachedRevisionCount() {
+        return revisions.size();
+    }
+
+    public String summary() {
+        return String.format("upload schema cache: revisionHits=%d, revisionMisses=%d, mostRecentHits=%d, "
+                + "mostRecentMisses=%d, collapsedMisses=%d, fetches=%d, errors=%d, cachedRevisions=%d",
+                getRevisionHits(), getRevisionMisses(), getMostRecentHits(), getMostRecentMisses(),
+                getCollapsedMisses(), getFetches(), getErrors(), getCachedRevisionCount());
+    }
+
+    private UploadSchema fetch(ConcurrentMap<String, Flight> map, String key, Flight flight,
+            Callable<UploadSchema> call) throws Exception {
+        fetches.incrementAndGet();
+        try {
+            UploadSchema schema = call.call();
+            flight.completedOn = System.currentTimeMillis();
+            flight.future.complete(schema);
+            return schema;
+        } catch (Exception ex) {
+            errors.incrementAndGet();
+            map.remove(key, flight);
+            flight.future.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private static UploadSchema await(Flight flight) throws Exception {
+        try {
+            return flight.future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static String revisionKey(String studyId, String schemaId, long revision) {
+        return studyId + ":" + schemaId + ":" + revision;
+    }
+
+    // One server call and everyone waiting for it.
+    private static final class Flight {
+        private final CompletableFuture<UploadSchema> future = new CompletableFuture<>();
+        private volatile long completedOn;
+    }
+}
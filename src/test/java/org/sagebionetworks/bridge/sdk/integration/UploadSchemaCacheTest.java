@@ -0,0 +1,188 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.UploadFieldDefinition;
+import org.sagebionetworks.bridge.rest.model.UploadFieldType;
+import org.sagebionetworks.bridge.rest.model.UploadSchema;
+import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Verifies {@link UploadSchemaCache}'s revision, most-recent and single-flight behavior against a real schema, and
+ * replays an export worker's per-record schema lookups to compare cached and uncached latency.
+ */
+@Category(LoadTest.class)
+public class UploadSchemaCacheTest {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadSchemaCacheTest.class);
+
+    private static final int THREADS = LoadTestHelper.getIntProperty("load.threads", 16);
+    private static final int RECORDS = LoadTestHelper.getIntProperty("load.records", 500);
+    private static final long MOST_RECENT_TTL_MILLIS = 2000;
+
+    private static TestUser developer;
+    private static TestUser worker;
+    private static UploadSchemasApi schemasApi;
+    private static ForWorkersApi workersApi;
+
+    private String schemaId;
+    private ResourceCleaner cleaner;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(UploadSchemaCacheTest.class, false, Role.DEVELOPER);
+        worker = TestUserHelper.createAndSignInUser(UploadSchemaCacheTest.class, false, Role.WORKER);
+        schemasApi = developer.getClient(UploadSchemasApi.class);
+        workersApi = worker.getClient(ForWorkersApi.class);
+    }
+
+    @Before
+    public void before() throws Exception {
+        schemaId = "schema-cache-" + RandomStringUtils.randomAlphabetic(4);
+        cleaner = new ResourceCleaner(TestUserHelper.getSignedInAdmin());
+        cleaner.registerUploadSchema(schemaId);
+
+        // Revisions 1 and 2.
+        createRevision(null);
+        createRevision(1L);
+    }
+
+    @After
+    public void after() throws Exception {
+        cleaner.cleanup();
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteWorker() throws Exception {
+        if (worker != null) {
+            worker.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void revisionIsFetchedOnce() throws Exception {
+        UploadSchemaCache cache = new UploadSchemaCache(workersApi, MOST_RECENT_TTL_MILLIS);
+        UploadSchema schema = cache.getSchemaRevision(Tests.TEST_KEY, schemaId, 1L);
+        UploadSchema cached = cache.getSchemaRevision(Tests.TEST_KEY, schemaId, 1L);
+        assertSame(schema, cached);
+        assertEquals(1L, schema.getRevision().longValue());
+        assertEquals(1L, cache.getFetches());
+        assertEquals(1L, cache.getRevisionHits());
+    }
+
+    @Test
+    public void concurrentMissesShareOneFetch() throws Exception {
+        UploadSchemaCache cache = new UploadSchemaCache(workersApi, MOST_RECENT_TTL_MILLIS);
+        // Every thread waits until all of them are ready, so the lookups arrive together.
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        List<Callable<UploadSchema>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> {
+                ready.countDown();
+                ready.await();
+                return cache.getSchemaRevision(Tests.TEST_KEY, schemaId, 2L);
+            });
+        }
+        List<UploadSchema> results = LoadTestHelper.runConcurrently(THREADS, tasks);
+
+        for (UploadSchema result : results) {
+            assertSame(results.get(0), result);
+        }
+        LOG.info(cache.summary());
+        assertEquals(1L, cache.getFetches());
+        assertEquals(THREADS - 1, cache.getCollapsedMisses() + cache.getRevisionHits());
+    }
+
+    @Test
+    public void mostRecentIsRefreshedAfterTtl() throws Exception {
+        UploadSchemaCache cache = new UploadSchemaCache(workersApi, MOST_RECENT_TTL_MILLIS);
+        assertEquals(2L, cache.getMostRecentSchema(Tests.TEST_KEY, schemaId).getRevision().longValue());
+
+        // The most recent revision also seeds the revision cache.
+        cache.getSchemaRevision(Tests.TEST_KEY, schemaId, 2L);
+        assertEquals(1L, cache.getFetches());
+
+        createRevision(2L);
+        assertEquals(2L, cache.getMostRecentSchema(Tests.TEST_KEY, schemaId).getRevision().longValue());
+        assertEquals(1L, cache.getMostRecentHits());
+
+        Thread.sleep(MOST_RECENT_TTL_MILLIS + 500);
+        assertEquals(3L, cache.getMostRecentSchema(Tests.TEST_KEY, schemaId).getRevision().longValue());
+        assertEquals(2L, cache.getMostRecentMisses());
+    }
+
+    @Test
+    public void replayWorkerLookups() throws Exception {
+        createRevision(2L);
+        UploadSchemaCache cache = new UploadSchemaCache(workersApi, MOST_RECENT_TTL_MILLIS);
+        LatencyRecorder uncached = new LatencyRecorder("getSchemaRevisionInStudy, uncached");
+        LatencyRecorder cached = new LatencyRecorder("getSchemaRevisionInStudy, cached");
+
+        // Each record names one of the three revisions, as records from different app versions would.
+        Random random = new Random(RECORDS);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            long revision = 1 + random.nextInt(3);
+            tasks.add(() -> {
+                uncached.time(() -> workersApi.getSchemaRevisionInStudy(Tests.TEST_KEY, schemaId, revision)
+                        .execute().body());
+                cached.time(() -> cache.getSchemaRevision(Tests.TEST_KEY, schemaId, revision));
+                return null;
+            });
+        }
+        LoadTestHelper.runConcurrently(THREADS, tasks);
+        uncached.log();
+        cached.log();
+        LOG.info(cache.summary());
+
+        assertEquals(3L, cache.getFetches());
+        assertEquals(RECORDS, cache.getRevisionHits() + cache.getRevisionMisses() + cache.getCollapsedMisses());
+    }
+
+    private void createRevision(Long previousRevision) throws Exception {
+        int fieldCount = (previousRevision == null) ? 1 : previousRevision.intValue() + 1;
+        List<UploadFieldDefinition> fields = Lists.newArrayList();
+        for (int i = 0; i < fieldCount; i++) {
+            UploadFieldDefinition field = new UploadFieldDefinition();
+            field.setName("field_" + i);
+            field.setType(UploadFieldType.STRING);
+            field.setRequired(i == 0);
+            fields.add(field);
+        }
+        UploadSchema schema = new UploadSchema();
+        schema.setName("Schema cache");
+        schema.setSchemaId(schemaId);
+        schema.setRevision(previousRevision);
+        schema.setSchemaType(UploadSchemaType.IOS_DATA);
+        schema.setFieldDefinitions(fields);
+        schemasApi.createOrUpdateUploadSchema(schema).execute();
+    }
+}
@@ -0,0 +1,198 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.UploadFieldDefinition;
+import org.sagebionetworks.bridge.rest.model.UploadFieldType;
+import org.sagebionetworks.bridge.rest.model.UploadSchema;
+import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
+import org.sagebionetworks.bridge.sdk.integration.TestUserHelper.TestUser;
+
+/**
+ * Builds upload schemas with deep revision histories and measures how lookups and deletion scale with the number of
+ * revisions. For each depth, a schema is created with a set of field definitions and then revised (one optional field
+ * added per revision) until it has that many revisions. The latest revision, random specific revisions (through both
+ * the developer and worker APIs) and deletion of all revisions are then timed. Results are logged and appended to
+ * target/load-results/upload-schema-revisions.csv.
+ */
+@Category(LoadTest.class)
+public class UploadSchemaRevisionHistoryTest {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadSchemaRevisionHistoryTest.class);
+
+    private static final List<Integer> REVISION_COUNTS = LoadTestHelper.getIntListProperty("load.schemaRevisions",
+            "10,50,200");
+    private static final int BASE_FIELD_COUNT = LoadTestHelper.getIntProperty("load.schemaFields", 50);
+    private static final int LOOKUPS = LoadTestHelper.getIntProperty("load.lookups", 20);
+
+    private static final UploadFieldType[] FIELD_TYPES = { UploadFieldType.STRING, UploadFieldType.INT,
+            UploadFieldType.BOOLEAN, UploadFieldType.FLOAT, UploadFieldType.TIMESTAMP,
+            UploadFieldType.MULTI_CHOICE };
+
+    private static TestUser developer;
+    private static TestUser worker;
+    private static UploadSchemasApi devUploadSchemasApi;
+    private static ForWorkersApi workerApi;
+    private static ForAdminsApi adminApi;
+
+    private ResourceCleaner cleaner;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserHelper.createAndSignInUser(UploadSchemaRevisionHistoryTest.class, false, Role.DEVELOPER);
+        worker = TestUserHelper.createAndSignInUser(UploadSchemaRevisionHistoryTest.class, false, Role.WORKER);
+        devUploadSchemasApi = developer.getClient(UploadSchemasApi.class);
+        workerApi = worker.getClient(ForWorkersApi.class);
+        adminApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+    }
+
+    @Before
+    public void before() {
+        cleaner = new ResourceCleaner(TestUserHelper.getSignedInAdmin());
+    }
+
+    @After
+    public void after() throws Exception {
+        cleaner.cleanup();
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        if (developer != null) {
+            developer.signOutAndDeleteUser();
+        }
+    }
+
+    @AfterClass
+    public static void deleteWorker() throws Exception {
+        if (worker != null) {
+            worker.signOutAndDeleteUser();
+        }
+    }
+
+    @Test
+    public void lookupsAndDeletionAsHistoryGrows() throws Exception {
+        Random random = new Random(REVISION_COUNTS.hashCode());
+        List<String> rows = new ArrayList<>();
+        for (int revisionCount : REVISION_COUNTS) {
+            String schemaId = "schema-history-" + revisionCount + "-" + RandomStringUtils.randomAlphabetic(4);
+            // The scenario deletes the schema itself; this only covers failures part way through.
+            cleaner.registerUploadSchema(schemaId);
+
+            LatencyRecorder create = new LatencyRecorder("createOrUpdateUploadSchema, " + revisionCount
+                    + " revisions");
+            buildHistory(create, schemaId, revisionCount);
+            create.log();
+
+            LatencyRecorder latest = new LatencyRecorder("getMostRecentUploadSchema, " + revisionCount
+                    + " revisions");
+            for (int i = 0; i < LOOKUPS; i++) {
+                UploadSchema schema = latest.time(() -> devUploadSchemasApi.getMostRecentUploadSchema(schemaId)
+                        .execute().body());
+                assertEquals(revisionCount, schema.getRevision().intValue());
+            }
+            latest.log();
+
+            LatencyRecorder revision = new LatencyRecorder("getUploadSchema, " + revisionCount + " revisions");
+            LatencyRecorder workerRevision = new LatencyRecorder("getSchemaRevisionInStudy, " + revisionCount
+                    + " revisions");
+            for (int i = 0; i < LOOKUPS; i++) {
+                long rev = 1 + random.nextInt(revisionCount);
+                UploadSchema schema = revision.time(() -> devUploadSchemasApi.getUploadSchema(schemaId, rev)
+                        .execute().body());
+                assertEquals(rev, schema.getRevision().longValue());
+                assertEquals(fieldCount(rev), schema.getFieldDefinitions().size());
+
+                schema = workerRevision.time(() -> workerApi.getSchemaRevisionInStudy(Tests.TEST_KEY, schemaId, rev)
+                        .execute().body());
+                assertEquals(rev, schema.getRevision().longValue());
+            }
+            revision.log();
+            workerRevision.log();
+
+            long start = System.currentTimeMillis();
+            adminApi.deleteAllRevisionsOfUploadSchema(Tests.TEST_KEY, schemaId).execute();
+            long deleteMillis = System.currentTimeMillis() - start;
+            LOG.info("deleteAllRevisionsOfUploadSchema, " + revisionCount + " revisions: " + deleteMillis + "ms");
+            try {
+                devUploadSchemasApi.getMostRecentUploadSchema(schemaId).execute();
+                fail("expected exception");
+            } catch (EntityNotFoundException ex) {
+                // expected exception
+            }
+
+            rows.add(revisionCount + "," + fieldCount(revisionCount) + "," + create.getPercentile(0.5) + ","
+                    + latest.getPercentile(0.5) + "," + latest.getPercentile(0.99) + ","
+                    + revision.getPercentile(0.5) + "," + revision.getPercentile(0.99) + ","
+                    + workerRevision.getPercentile(0.5) + "," + workerRevision.getPercentile(0.99) + ","
+                    + deleteMillis);
+        }
+        LoadTestHelper.appendResults("upload-schema-revisions", "revisions,latestFieldCount,createP50,latestP50,"
+                + "latestP99,revisionP50,revisionP99,workerRevisionP50,workerRevisionP99,deleteAllMillis", rows);
+    }
+
+    // Creates revision 1 with the base fields, then revises the schema until it has revisionCount revisions.
+    private static void buildHistory(LatencyRecorder recorder, String schemaId, int revisionCount) throws Exception {
+        List<UploadFieldDefinition> fields = new ArrayList<>();
+        for (int i = 0; i < BASE_FIELD_COUNT; i++) {
+            fields.add(field("field_" + i, FIELD_TYPES[i % FIELD_TYPES.length], true));
+        }
+        UploadSchema schema = new UploadSchema();
+        schema.setName("Revision history " + revisionCount);
+        schema.setSchemaId(schemaId);
+        schema.setSchemaType(UploadSchemaType.IOS_DATA);
+        schema.setFieldDefinitions(fields);
+        UploadSchema current = recorder.time(() -> devUploadSchemasApi.createOrUpdateUploadSchema(schema)
+                .execute().body());
+
+        for (int rev = 2; rev <= revisionCount; rev++) {
+            fields = new ArrayList<>(current.getFieldDefinitions());
+            fields.add(field("added_" + rev, FIELD_TYPES[rev % FIELD_TYPES.length], false));
+            UploadSchema next = new UploadSchema();
+            next.setName(current.getName());
+            next.setSchemaId(schemaId);
+            next.setSchemaType(current.getSchemaType());
+            next.setRevision(current.getRevision());
+            next.setVersion(current.getVersion());
+            next.setFieldDefinitions(fields);
+            current = recorder.time(() -> devUploadSchemasApi.createOrUpdateUploadSchema(next).execute().body());
+            assertEquals(rev, current.getRevision().intValue());
+        }
+    }
+
+    // Revision n has the base fields plus one added field for each revision after the first.
+    private static int fieldCount(long revision) {
+        return BASE_FIELD_COUNT + (int)revision - 1;
+    }
+
+    private static UploadFieldDefinition field(String name, UploadFieldType type, boolean required) {
+        UploadFieldDefinition field = new UploadFieldDefinition();
+        field.setName(name);
+        field.setType(type);
+        field.setRequired(required);
+        if (type == UploadFieldType.MULTI_CHOICE) {
+            field.setMultiChoiceAnswerList(Lists.newArrayList("foo", "bar", "baz"));
+        }
+        return field;
+    }
+}
@@ -44,6 +44,7 @@ public class UploadSchemaTest {
     private static ForWorkersApi workerUploadSchemasApi;
 
     private String schemaId;
+    private ResourceCleaner cleaner;
 
     @BeforeClass
     public static void beforeClass() throws Exception {
@@ -60,15 +61,15 @@ public class UploadSchemaTest {
     @Before
     public void before() {
         schemaId = TEST_SCHEMA_ID_PREFIX + RandomStringUtils.randomAlphabetic(4);
+
+        // The test may have already deleted the schema, which the cleaner treats as deleted.
+        cleaner = new ResourceCleaner(TestUserHelper.getSignedInAdmin());
+        cleaner.registerUploadSchema(schemaId);
     }
 
     @After
     public void deleteSchemas() throws Exception {
-        try {
-            adminApi.deleteAllRevisionsOfUploadSchema(Tests.TEST_KEY, schemaId).execute();
-        } catch (EntityNotFoundException ex) {
-            // Suppress the exception, as the test may have already deleted the schema.
-        }
+        cleaner.cleanup();
     }
 
     @AfterClass
@@ -57,8 +57,11 @@ public class UploadTest {
         user = TestUserHelper.createAndSignInUser(UploadTest.class, true);
 
         // ensure schemas exist, so we have something to upload against
-        UploadSchemasApi uploadSchemasApi = developer.getClient(UploadSchemasApi.class);
+        createSchemasIfMissing(developer.getClient(UploadSchemasApi.class));
+    }
 
+    // Also used by the export benchmark, which uploads the same test files.
+    static void createSchemasIfMissing(UploadSchemasApi uploadSchemasApi) throws Exception {
         UploadSchema legacySurveySchema = null;
         try {
             legacySurveySchema = uploadSchemasApi.getMostRecentUploadSchema("legacy-survey").execute().body();